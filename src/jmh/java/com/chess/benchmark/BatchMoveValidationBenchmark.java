@@ -0,0 +1,69 @@
+package com.chess.benchmark;
+
+import com.chess.BatchMoveValidator;
+import com.chess.ChineseChessService;
+import com.chess.Move;
+import com.chess.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大量走法的合法性檢查：逐步呼叫 move/unmakeMove 與 BatchMoveValidator 查表的比較
+ * 走法為中局的隨機起點/終點組合，以 seed 固定
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchMoveValidationBenchmark {
+
+    @Param({"16", "1000"})
+    public int batchSize;
+
+    private ChineseChessService middleGame;
+    private int[] moves;
+    private final BitSet result = new BitSet();
+
+    @Setup
+    public void setUp() {
+        middleGame = BenchmarkPositions.middleGame();
+        SplittableRandom random = new SplittableRandom(42);
+        moves = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            moves[i] = Move.of(random.nextInt(Square.COUNT), random.nextInt(Square.COUNT));
+        }
+    }
+
+    @Benchmark
+    public BitSet singleMoves() {
+        result.clear();
+        for (int i = 0; i < moves.length; i++) {
+            if (middleGame.move(moves[i])) {
+                middleGame.unmakeMove();
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BitSet batch() {
+        BatchMoveValidator.validate(middleGame, moves, moves.length, result);
+        return result;
+    }
+}
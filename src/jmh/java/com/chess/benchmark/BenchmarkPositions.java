@@ -0,0 +1,42 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.Move;
+import com.chess.Square;
+
+import java.util.Arrays;
+
+/**
+ * 基準測試共用的局面
+ */
+final class BenchmarkPositions {
+
+    // 中局：雙方各走數步後，車炮馬皆已出動
+    private static final int[][] MIDDLE_GAME_MOVES = {
+            {3, 8, 3, 5}, {10, 8, 8, 7}, {1, 8, 3, 7}, {10, 9, 10, 8},
+            {1, 9, 1, 8}, {7, 7, 6, 7}, {4, 7, 5, 7}, {6, 7, 5, 7},
+            {1, 8, 7, 8}, {8, 2, 8, 5}, {1, 2, 3, 3}, {10, 2, 8, 3}
+    };
+
+    private BenchmarkPositions() {
+        // Utility class - prevent instantiation
+    }
+
+    static ChineseChessService initialPosition() {
+        ChineseChessService position = new ChineseChessService();
+        position.setupInitialPosition();
+        return position;
+    }
+
+    static ChineseChessService middleGame() {
+        ChineseChessService position = initialPosition();
+        for (int[] move : MIDDLE_GAME_MOVES) {
+            int from = Square.of(move[0], move[1]);
+            int to = Square.of(move[2], move[3]);
+            if (!position.move(Move.of(from, to))) {
+                throw new IllegalStateException("Illegal benchmark move: " + Arrays.toString(move));
+            }
+        }
+        return position;
+    }
+}
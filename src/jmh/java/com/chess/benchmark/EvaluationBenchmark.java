@@ -0,0 +1,61 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.Color;
+import com.chess.Evaluation;
+import com.chess.PieceCode;
+import com.chess.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 靜態評估的成本：增量的子力 + 位置分、完整評估，以及逐格重新累計子力的舊做法
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private ChineseChessService position;
+
+    @Setup
+    public void setUp() {
+        position = BenchmarkPositions.middleGame();
+    }
+
+    @Benchmark
+    public int incrementalPieceSquareScore() {
+        return position.pieceSquareScore();
+    }
+
+    @Benchmark
+    public int fullEvaluation() {
+        return Evaluation.evaluate(position);
+    }
+
+    @Benchmark
+    public int materialScan() {
+        int score = 0;
+        for (int square = 0; square < Square.COUNT; square++) {
+            int piece = position.pieceCodeAt(square);
+            if (piece != PieceCode.EMPTY) {
+                int value = PieceCode.type(piece).getValue();
+                score += PieceCode.isColor(piece, Color.RED) ? value : -value;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,81 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.GameRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.chess.ChessConstants.MAX_MOVES;
+
+/**
+ * GameRegistry 負載測試：games 個進行中的對局，多個客戶端執行緒隨機挑選對局提交一步棋並等待結果
+ * SampleTime 模式會列出走子延遲的分佈（含 p0.99）
+ * 例：java -jar target/benchmarks.jar GameRegistryLoadBenchmark -t 16 -p games=100000 -p workers=8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GameRegistryLoadBenchmark {
+
+    // 對局內的動作：隨機走一步合法的棋；對局結束或走太久時重新開局
+    private static final int MAX_GAME_PLIES = 200;
+    private static final Function<ChineseChessService, Boolean> PLAY_RANDOM_MOVE = position -> {
+        int[] moves = new int[MAX_MOVES];
+        int count = position.generateLegalMoves(position.sideToMove(), moves);
+        if (count == 0 || position.isGameOver() || position.ply() >= MAX_GAME_PLIES) {
+            position.setupInitialPosition();
+            count = position.generateLegalMoves(position.sideToMove(), moves);
+        }
+        return position.move(moves[ThreadLocalRandom.current().nextInt(count)]);
+    };
+
+    @Param({"100000"})
+    public int games;
+
+    @Param({"4"})
+    public int workers;
+
+    private GameRegistry registry;
+    private long[] gameIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new GameRegistry(workers, Duration.ofMinutes(10));
+        gameIds = new long[games];
+        for (int i = 0; i < games; i++) {
+            gameIds[i] = registry.createGame();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Benchmark
+    public boolean moveLatency() {
+        long game = gameIds[ThreadLocalRandom.current().nextInt(gameIds.length)];
+        return registry.submit(game, PLAY_RANDOM_MOVE).join();
+    }
+}
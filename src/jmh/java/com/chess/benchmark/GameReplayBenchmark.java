@@ -0,0 +1,98 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.GameReplay;
+import com.chess.Iccs;
+import com.chess.ReplayResult;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.chess.ChessConstants.MAX_MOVES;
+
+/**
+ * 棋譜重播吞吐量：以固定種子產生隨機對局寫成暫存檔，再以不同執行緒數重播
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GameReplayBenchmark {
+
+    private static final long SEED = 20240601L;
+    private static final int MAX_GAME_PLIES = 120;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    @Param({"20000"})
+    public int games;
+
+    private Path archive;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ReplayCounters {
+        public long gamesPerSecond;
+        public long movesPerSecond;
+    }
+
+    @Setup(Level.Trial)
+    public void writeArchive() throws IOException {
+        archive = Files.createTempFile("replay-benchmark", ".iccs");
+        SplittableRandom random = new SplittableRandom(SEED);
+        ChineseChessService position = new ChineseChessService();
+        int[] moves = new int[MAX_MOVES];
+        StringBuilder line = new StringBuilder(MAX_GAME_PLIES * (Iccs.LENGTH + 1));
+        try (BufferedWriter writer = Files.newBufferedWriter(archive, StandardCharsets.US_ASCII)) {
+            for (int game = 0; game < games; game++) {
+                position.setupInitialPosition();
+                line.setLength(0);
+                for (int ply = 0; ply < MAX_GAME_PLIES && !position.isGameOver(); ply++) {
+                    int count = position.generateLegalMoves(position.sideToMove(), moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    int move = moves[random.nextInt(count)];
+                    position.move(move);
+                    Iccs.append(line.length() == 0 ? line : line.append(' '), move);
+                }
+                writer.append(line).append('\n');
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteArchive() throws IOException {
+        Files.deleteIfExists(archive);
+    }
+
+    @Benchmark
+    public long replay(ReplayCounters counters) throws IOException {
+        ReplayResult result = new GameReplay(threads).replay(archive);
+        counters.gamesPerSecond = result.gamesPerSecond();
+        counters.movesPerSecond = result.movesPerSecond();
+        return result.moves();
+    }
+}
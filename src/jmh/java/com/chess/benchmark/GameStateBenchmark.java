@@ -0,0 +1,59 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.GameState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.chess.ChessConstants.MAX_MOVES;
+
+/**
+ * 每步快照的成本：複製整個棋盤、完整擷取 GameState 與由前一個快照共用未改動的半邊
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+    private ChineseChessService afterMove;
+    private GameState beforeMove;
+    private int move;
+
+    @Setup
+    public void setUp() {
+        afterMove = BenchmarkPositions.middleGame();
+        int[] moves = new int[MAX_MOVES];
+        afterMove.generateLegalMoves(afterMove.sideToMove(), moves);
+        move = moves[0];
+        beforeMove = GameState.of(afterMove);
+        afterMove.makeMove(move);
+    }
+
+    @Benchmark
+    public ChineseChessService copyBoard() {
+        return afterMove.copy();
+    }
+
+    @Benchmark
+    public GameState fullSnapshot() {
+        return GameState.of(afterMove);
+    }
+
+    @Benchmark
+    public GameState sharedSnapshot() {
+        return beforeMove.after(move, afterMove);
+    }
+}
@@ -0,0 +1,71 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.SearchEngine;
+import com.chess.SearchLimits;
+import com.chess.SearchResult;
+import com.chess.TranspositionTable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 走法排序的效果：同一深度下，開啟與關閉排序的 time-to-depth（分數）與 nodes-to-depth（輔助計數器）
+ * 關閉時只保留置換表走法優先
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MoveOrderingBenchmark {
+
+    @Param({"true", "false"})
+    public boolean ordering;
+
+    @Param({"5"})
+    public int depth;
+
+    private TranspositionTable transpositionTable;
+    private SearchEngine engine;
+    private ChineseChessService position;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SearchCounters {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        transpositionTable = new TranspositionTable(64);
+        engine = new SearchEngine(transpositionTable);
+        engine.setMoveOrdering(ordering);
+        position = BenchmarkPositions.middleGame();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTable() {
+        transpositionTable.clear();
+    }
+
+    @Benchmark
+    public int nodesToDepth(SearchCounters counters) {
+        SearchResult result = engine.search(position, SearchLimits.depth(depth));
+        counters.nodes = result.nodes();
+        return result.bestMove();
+    }
+}
@@ -0,0 +1,97 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.Color;
+import com.chess.Move;
+import com.chess.PieceType;
+import com.chess.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.chess.ChessConstants.MAX_MOVES;
+
+/**
+ * 走法規則熱路徑的基準測試：單步驗證、走法產生、makeMove/unmakeMove 與兩將照面檢查
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveRulesBenchmark {
+
+    private ChineseChessService middleGame;
+    private ChineseChessService facingGenerals;
+    private final int[] moves = new int[MAX_MOVES];
+    private int firstLegalMove;
+    private int rookMove;
+    private int generalMove;
+
+    @Setup
+    public void setUp() {
+        middleGame = BenchmarkPositions.middleGame();
+        middleGame.generateLegalMoves(middleGame.sideToMove(), moves);
+        firstLegalMove = moves[0];
+        rookMove = Move.of(Square.of(1, 1), Square.of(2, 1));
+
+        facingGenerals = new ChineseChessService();
+        facingGenerals.initializeBoard();
+        facingGenerals.placePiece(Color.RED, PieceType.GENERAL, 2, 4);
+        facingGenerals.placePiece(Color.BLACK, PieceType.GENERAL, 8, 5);
+        generalMove = Move.of(Square.of(2, 4), Square.of(3, 4));
+    }
+
+    @Benchmark
+    public boolean legacyStringMoveValidation() {
+        boolean legal = middleGame.moveRook("Red", 1, 1, 2, 1);
+        if (legal) {
+            middleGame.unmakeMove();
+        }
+        return legal;
+    }
+
+    @Benchmark
+    public boolean packedMoveValidation() {
+        boolean legal = middleGame.move(rookMove);
+        if (legal) {
+            middleGame.unmakeMove();
+        }
+        return legal;
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return middleGame.generateLegalMoves(middleGame.sideToMove(), moves);
+    }
+
+    @Benchmark
+    public long makeUnmakeMove() {
+        middleGame.makeMove(firstLegalMove);
+        long hash = middleGame.positionHash();
+        middleGame.unmakeMove();
+        return hash;
+    }
+
+    /**
+     * 將的走法在套用後必須檢查兩將照面
+     */
+    @Benchmark
+    public boolean generalMoveWithFacingCheck() {
+        boolean legal = facingGenerals.move(generalMove);
+        if (legal) {
+            facingGenerals.unmakeMove();
+        }
+        return legal;
+    }
+}
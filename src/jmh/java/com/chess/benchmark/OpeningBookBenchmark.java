@@ -0,0 +1,98 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.Iccs;
+import com.chess.OpeningBook;
+import com.chess.OpeningBookBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.chess.ChessConstants.MAX_MOVES;
+
+/**
+ * 開局庫查詢延遲：以固定種子的隨機對局建庫，多執行緒同時查詢書中與書外的局面
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class OpeningBookBenchmark {
+
+    private static final long SEED = 20240602L;
+    private static final int BOOK_PLIES = 20;
+    private static final int PROBE_POSITIONS = 1024;
+
+    @Param({"50000"})
+    public int games;
+
+    private Path bookFile;
+    private OpeningBook book;
+    private final long[] probeHashes = new long[PROBE_POSITIONS];
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void buildBook() throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        OpeningBookBuilder builder = new OpeningBookBuilder(BOOK_PLIES);
+        ChineseChessService position = new ChineseChessService();
+        int[] moves = new int[MAX_MOVES];
+        StringBuilder line = new StringBuilder();
+        for (int game = 0; game < games; game++) {
+            position.setupInitialPosition();
+            line.setLength(0);
+            for (int ply = 0; ply < BOOK_PLIES; ply++) {
+                int count = position.generateLegalMoves(position.sideToMove(), moves);
+                if (count == 0 || position.isGameOver()) {
+                    break;
+                }
+                int move = moves[random.nextInt(count)];
+                // 一半的查詢局面在書中，一半是書外再走一步的局面
+                if (game < PROBE_POSITIONS && ply == BOOK_PLIES / 2) {
+                    probeHashes[game] = position.positionHash() ^ (game % 2 == 0 ? 0 : random.nextLong());
+                }
+                position.move(move);
+                Iccs.append(line.length() == 0 ? line : line.append(' '), move);
+            }
+            builder.addGame(line.toString());
+        }
+        bookFile = Files.createTempFile("opening-benchmark", ".book");
+        builder.write(bookFile);
+        book = OpeningBook.open(bookFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteBook() throws IOException {
+        Files.deleteIfExists(bookFile);
+    }
+
+    @Benchmark
+    public int bestMove(Cursor cursor) {
+        long hash = probeHashes[cursor.next++ & (PROBE_POSITIONS - 1)];
+        return book.bestMove(hash);
+    }
+}
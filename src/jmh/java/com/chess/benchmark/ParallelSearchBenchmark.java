@@ -0,0 +1,78 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.ParallelSearch;
+import com.chess.SearchLimits;
+import com.chess.SearchResult;
+import com.chess.TranspositionTable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy SMP 擴展性：固定深度的 time-to-depth（分數）與 NPS（輔助計數器），threads 由 1 到 N
+ * 例：java -jar target/benchmarks.jar ParallelSearchBenchmark -p threads=1,2,4,8,16,32
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    @Param({"7"})
+    public int depth;
+
+    private ParallelSearch search;
+    private TranspositionTable transpositionTable;
+    private ChineseChessService position;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SearchCounters {
+        public long nodes;
+        public long nodesPerSecond;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        transpositionTable = new TranspositionTable(64);
+        search = new ParallelSearch(transpositionTable, threads);
+        position = BenchmarkPositions.middleGame();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTable() {
+        transpositionTable.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public int timeToDepth(SearchCounters counters) {
+        SearchResult result = search.search(position, SearchLimits.depth(depth));
+        counters.nodes = result.nodes();
+        counters.nodesPerSecond = result.nodesPerSecond();
+        return result.bestMove();
+    }
+}
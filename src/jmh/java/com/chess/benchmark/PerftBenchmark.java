@@ -0,0 +1,47 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perft 基準測試：走法產生 + makeMove/unmakeMove 的整體吞吐量
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+    @Param({"initial", "middleGame"})
+    public String position;
+
+    @Param({"3"})
+    public int depth;
+
+    private ChineseChessService board;
+
+    @Setup
+    public void setUp() {
+        board = "initial".equals(position) ? BenchmarkPositions.initialPosition() : BenchmarkPositions.middleGame();
+    }
+
+    @Benchmark
+    public long perft() {
+        return Perft.perft(board, depth);
+    }
+}
@@ -0,0 +1,68 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.Fen;
+import com.chess.PositionCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 局面記錄的讀寫速度：FEN 文字與 46 bytes 的二進位編碼
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionCodecBenchmark {
+
+    private ChineseChessService position;
+    private ChineseChessService target;
+    private String fen;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(PositionCodec.BYTES);
+
+    @Setup
+    public void setUp() {
+        position = BenchmarkPositions.middleGame();
+        target = new ChineseChessService();
+        fen = Fen.toFen(position);
+        PositionCodec.encode(position, buffer);
+    }
+
+    @Benchmark
+    public long loadFen() {
+        Fen.load(target, fen);
+        return target.positionHash();
+    }
+
+    @Benchmark
+    public String toFen() {
+        return Fen.toFen(position);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        buffer.clear();
+        PositionCodec.encode(position, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public long decode() {
+        buffer.rewind();
+        PositionCodec.decode(buffer, target);
+        return target.positionHash();
+    }
+}
@@ -0,0 +1,100 @@
+package com.chess.benchmark;
+
+import com.chess.ChineseChessService;
+import com.chess.Fen;
+import com.chess.Iccs;
+import com.chess.UcciEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.chess.ChessConstants.MAX_MOVES;
+
+/**
+ * 圖形介面每走一步就送出一次完整的 position 指令：
+ * 與上一次共用起始局面時只補走最後一步，起始局面不同時必須重播整串走法
+ * 對局為固定 seed 的隨機走法，最長 MAX_PLIES 步
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UcciPositionBenchmark {
+
+    private static final int MAX_PLIES = 120;
+
+    private UcciEngine engine;
+    private String[] startposCommands;
+    private String[] fenCommands;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        engine = new UcciEngine(new PrintStream(OutputStream.nullOutputStream()));
+        ChineseChessService position = BenchmarkPositions.initialPosition();
+        SplittableRandom random = new SplittableRandom(7);
+        int[] moves = new int[MAX_MOVES];
+        StringBuilder line = new StringBuilder();
+        List<String> lines = new ArrayList<>();
+        for (int ply = 0; ply < MAX_PLIES && !position.isGameOver(); ply++) {
+            int count = position.generateLegalMoves(position.sideToMove(), moves);
+            if (count == 0) {
+                break;
+            }
+            int move = moves[random.nextInt(count)];
+            position.move(move);
+            Iccs.append(line.append(' '), move);
+            lines.add(line.toString());
+        }
+        startposCommands = new String[lines.size()];
+        fenCommands = new String[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            startposCommands[i] = "position startpos moves" + lines.get(i);
+            fenCommands[i] = "position fen " + Fen.INITIAL_POSITION + " moves" + lines.get(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.handle("quit");
+    }
+
+    /**
+     * 依序送出逐步加長的指令，每次只補走一步（走完整盤後退回開局重來）
+     */
+    @Benchmark
+    public String incremental() {
+        String command = startposCommands[index];
+        index = (index + 1) % startposCommands.length;
+        engine.handle(command);
+        return command;
+    }
+
+    /**
+     * 交替使用 startpos 與相同的 FEN 起始局面，每次都必須重播整串走法
+     */
+    @Benchmark
+    public String fullReplay() {
+        String command = (index & 1) == 0 ? startposCommands[index] : fenCommands[index];
+        index = (index + 1) % startposCommands.length;
+        engine.handle(command);
+        return command;
+    }
+}
@@ -0,0 +1,67 @@
+package com.chess;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * 批次走法驗證：一次檢查大量走法是否合法，不修改傳入的棋盤
+ * 判斷規則與 ChineseChessService.move(int) 相同（不檢查輪到哪一方）
+ * - 棋子走法規則直接讀取原棋盤的格子與行/列佔用遮罩判斷，不需試走
+ * - 通過規則的走法才在整批共用的棋盤副本上試走，檢查己方將軍是否被將
+ * - 試走結果以 [起點][終點] 位元表記住，同一批次中重複的走法只需查表
+ */
+public final class BatchMoveValidator {
+
+    private static final int WORDS = (Square.COUNT * Square.COUNT + Long.SIZE - 1) / Long.SIZE;
+
+    private BatchMoveValidator() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * 驗證 moves 的前 count 個走法（Move 編碼，PieceCode 可為 0）
+     * 第 i 個走法合法時設定 result 的第 i 個位元，不合法時清除
+     */
+    public static void validate(ChineseChessService position, int[] moves, int count, BitSet result) {
+        Objects.requireNonNull(position, "Position cannot be null");
+        Objects.requireNonNull(moves, "Moves cannot be null");
+        Objects.requireNonNull(result, "Result cannot be null");
+        if (count < 0 || count > moves.length) {
+            throw new IllegalArgumentException("Move count out of range: " + count);
+        }
+
+        result.clear(0, count);
+        ChineseChessService snapshot = null;
+        long[] checked = null;
+        long[] legal = null;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (!position.isPseudoLegal(move)) {
+                continue;
+            }
+            if (snapshot == null) {
+                snapshot = position.copy();
+                checked = new long[WORDS];
+                legal = new long[WORDS];
+            }
+
+            int from = Move.from(move);
+            int to = Move.to(move);
+            int pair = from * Square.COUNT + to;
+            int word = pair >>> 6;
+            long bit = 1L << pair;
+            if ((checked[word] & bit) == 0) {
+                checked[word] |= bit;
+                int piece = snapshot.pieceCodeAt(from);
+                snapshot.makeMove(Move.of(from, to, piece));
+                if (!snapshot.isInCheck(PieceCode.color(piece))) {
+                    legal[word] |= bit;
+                }
+                snapshot.unmakeMove();
+            }
+            if ((legal[word] & bit) != 0) {
+                result.set(i);
+            }
+        }
+    }
+}
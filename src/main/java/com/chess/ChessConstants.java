@@ -14,6 +14,12 @@ public final class ChessConstants {
     public static final int PALACE_MIN_COL = 4;
     public static final int PALACE_MAX_COL = 6;
     
+    // Initial position
+    public static final int RED_CANNON_ROW = 3;
+    public static final int RED_SOLDIER_ROW = 4;
+    public static final int BLACK_SOLDIER_ROW = 7;
+    public static final int BLACK_CANNON_ROW = 8;
+    
     // River boundary
     public static final int RIVER_BOUNDARY = 5;
     
@@ -25,6 +31,18 @@ public final class ChessConstants {
     public static final int ELEPHANT_DIAGONAL_DISTANCE = 2;
     public static final int CANNON_REQUIRED_JUMP_PIECES = 1;
     
+    // Move generation: upper bound on legal moves in any position
+    public static final int MAX_MOVES = 128;
+    
+    // Initial capacity of the make/unmake undo stack (grows on demand)
+    public static final int MAX_PLY = 1024;
+    
+    // Repetition: the game ends when a position occurs this many times since the last capture
+    public static final int REPETITION_LIMIT = 3;
+    
+    // Search: deepest ply the search engine will reach from the root
+    public static final int MAX_SEARCH_PLY = 64;
+    
     private ChessConstants() {
         // Utility class - prevent instantiation
     }
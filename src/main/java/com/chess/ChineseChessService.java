@@ -1,37 +1,170 @@
 package com.chess;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Objects;
 
 import static com.chess.ChessConstants.*;
 
 public class ChineseChessService {
     
-    // 棋盤表示：key = Position, value = Piece
-    private Map<Position, Piece> board;
+    // 標準開局的底線棋子（由第 1 列到第 9 列）
+    private static final PieceType[] BACK_RANK = {
+            PieceType.ROOK, PieceType.HORSE, PieceType.ELEPHANT, PieceType.GUARD, PieceType.GENERAL,
+            PieceType.GUARD, PieceType.ELEPHANT, PieceType.HORSE, PieceType.ROOK
+    };
+    private static final int[] CANNON_COLS = {2, 8};
+    
+    // 悔棋堆疊每筆資料以單一 int 打包：走法 | 被吃棋子 | 原 gameOver | 原 winner | 原走棋方
+    private static final int UNDO_MOVE_MASK = (1 << 18) - 1;
+    private static final int UNDO_CAPTURED_SHIFT = 18;
+    private static final int UNDO_GAME_OVER_BIT = 1 << 22;
+    private static final int UNDO_WINNER_SHIFT = 23;
+    private static final int UNDO_WINNER_MASK = 0x3;
+    private static final int UNDO_BLACK_TO_MOVE_BIT = 1 << 25;
+    private static final Color[] WINNERS = {null, Color.RED, Color.BLACK};
+    
+    // 棋盤表示：index = Square, value = PieceCode（0 表示空格）
+    private final byte[] board;
     private boolean gameOver;
     private Color winner;
     
+    // 走棋方與 Zobrist 雜湊，隨每次落子/移動以 XOR 增量更新
+    private Color sideToMove;
+    private long hash;
+    
+    // 增量維護：兩方將軍所在格（-1 表示不在棋盤上）
+    // 以及每一行（rank）的 9-bit 與每一列（file）的 10-bit 佔用遮罩
+    private final int[] generalSquares;
+    private final int[] rankOccupancy;
+    private final int[] fileOccupancy;
+    private int pieceCount;
+    
+    // 子力的鍵：每種 PieceCode 的數量佔 3 bit，供殘局庫查表
+    private long materialKey;
+    
+    // 評估權重與紅方觀點的子力 + 位置分，隨落子/移除增量累加
+    private EvaluationWeights evaluationWeights;
+    private int pieceSquareScore;
+    
+    // 預先配置的悔棋堆疊，ply 為目前深度
+    // hashHistory[i] 為第 i 步走之前的局面雜湊，與悔棋堆疊一起成長
+    private int[] undoStack;
+    private long[] hashHistory;
+    private int ply;
+    
+    // 判斷是否還有合法走法時使用的走法緩衝區
+    private final int[] replyMoves;
+    
     public ChineseChessService() {
-        this.board = new HashMap<>();
+        this(MAX_PLY);
+    }
+    
+    /**
+     * 指定悔棋堆疊的初始容量（會自動成長）；同時持有大量棋盤時以較小的容量節省記憶體
+     */
+    ChineseChessService(int undoCapacity) {
+        if (undoCapacity < 1) {
+            throw new IllegalArgumentException("Undo capacity must be positive, got: " + undoCapacity);
+        }
+        this.board = new byte[Square.COUNT];
         this.gameOver = false;
         this.winner = null;
+        this.sideToMove = Color.RED;
+        this.hash = 0L;
+        this.generalSquares = new int[] {-1, -1};
+        this.rankOccupancy = new int[BOARD_ROWS];
+        this.fileOccupancy = new int[BOARD_COLS];
+        this.pieceCount = 0;
+        this.materialKey = 0L;
+        this.evaluationWeights = EvaluationWeights.defaults();
+        this.pieceSquareScore = 0;
+        this.undoStack = new int[undoCapacity];
+        this.hashHistory = new long[undoCapacity];
+        this.ply = 0;
+        this.replyMoves = new int[MAX_MOVES];
+    }
+    
+    private ChineseChessService(ChineseChessService other) {
+        this.board = other.board.clone();
+        this.gameOver = other.gameOver;
+        this.winner = other.winner;
+        this.sideToMove = other.sideToMove;
+        this.hash = other.hash;
+        this.generalSquares = other.generalSquares.clone();
+        this.rankOccupancy = other.rankOccupancy.clone();
+        this.fileOccupancy = other.fileOccupancy.clone();
+        this.pieceCount = other.pieceCount;
+        this.materialKey = other.materialKey;
+        this.evaluationWeights = other.evaluationWeights;
+        this.pieceSquareScore = other.pieceSquareScore;
+        this.undoStack = other.undoStack.clone();
+        this.hashHistory = other.hashHistory.clone();
+        this.ply = other.ply;
+        this.replyMoves = new int[MAX_MOVES];
+    }
+    
+    /**
+     * 建立獨立的棋盤副本（含悔棋堆疊），供平行搜尋的每個執行緒各自使用
+     */
+    public ChineseChessService copy() {
+        return new ChineseChessService(this);
     }
     
     public void initializeBoard() {
-        board.clear();
+        Arrays.fill(board, (byte) PieceCode.EMPTY);
+        Arrays.fill(generalSquares, -1);
+        Arrays.fill(rankOccupancy, 0);
+        Arrays.fill(fileOccupancy, 0);
+        this.pieceCount = 0;
+        this.materialKey = 0L;
+        this.pieceSquareScore = 0;
         this.gameOver = false;
         this.winner = null;
+        this.sideToMove = Color.RED;
+        this.hash = Zobrist.sideKey(Color.RED);
+        this.ply = 0;
+    }
+    
+    /**
+     * 擺出標準開局：清空棋盤後放上雙方 32 枚棋子，紅方先走
+     */
+    public void setupInitialPosition() {
+        initializeBoard();
+        for (int col = 1; col <= BOARD_COLS; col++) {
+            placePiece(Color.RED, BACK_RANK[col - 1], RED_PALACE_MIN_ROW, col);
+            placePiece(Color.BLACK, BACK_RANK[col - 1], BLACK_PALACE_MAX_ROW, col);
+        }
+        for (int col : CANNON_COLS) {
+            placePiece(Color.RED, PieceType.CANNON, RED_CANNON_ROW, col);
+            placePiece(Color.BLACK, PieceType.CANNON, BLACK_CANNON_ROW, col);
+        }
+        for (int col = 1; col <= BOARD_COLS; col += 2) {
+            placePiece(Color.RED, PieceType.SOLDIER, RED_SOLDIER_ROW, col);
+            placePiece(Color.BLACK, PieceType.SOLDIER, BLACK_SOLDIER_ROW, col);
+        }
     }
     
     public void placePiece(Color color, PieceType pieceType, int row, int col) {
         Objects.requireNonNull(color, "Color cannot be null");
         Objects.requireNonNull(pieceType, "PieceType cannot be null");
         
-        Position position = Position.of(row, col);
-        Piece piece = Piece.of(color, pieceType);
-        board.put(position, piece);
+        putPiece(Square.of(row, col), PieceCode.of(color, pieceType));
+    }
+    
+    /**
+     * 以 PieceCode 直接擺子，供 Fen 與 PositionCodec 在 initializeBoard 後快速擺局
+     * 每種棋子不可超過 PieceType.getMaxCount()，確保合法走法數不超過 MAX_MOVES
+     */
+    void putPiece(int square, int piece) {
+        if (board[square] != PieceCode.EMPTY) {
+            removePiece(square);
+        }
+        PieceType type = PieceCode.type(piece);
+        if ((materialKey >>> (piece * 3) & 0x7) >= type.getMaxCount()) {
+            throw new IllegalArgumentException("Too many " + PieceCode.color(piece).getDisplayName() + " "
+                    + type.getDisplayName() + " pieces, at most " + type.getMaxCount());
+        }
+        addPiece(square, piece);
     }
     
     // Legacy method for backward compatibility
@@ -41,153 +174,385 @@ public class ChineseChessService {
         placePiece(colorEnum, pieceTypeEnum, row, col);
     }
     
-    public boolean moveGeneral(String color, int fromRow, int fromCol, int toRow, int toCol) {
-        Color colorEnum = Color.fromString(color);
-        Position fromPos = Position.of(fromRow, fromCol);
-        Position toPos = Position.of(toRow, toCol);
-        
-        if (!isValidGeneralMove(colorEnum, fromPos, toPos)) {
+    /**
+     * 統一的走法入口：棋子種類由棋盤讀取，而非由方法名稱決定
+     * 若走法有指定 PieceCode，必須與起點上的棋子相符；走完後己方將軍不可被將
+     * 對手因此被將死或困斃、或局面重複達 REPETITION_LIMIT 次時遊戲結束
+     * 整條路徑不配置任何物件
+     */
+    public boolean move(int move) {
+        if (!isPseudoLegal(move)) {
             return false;
         }
         
-        Piece targetPiece = board.get(toPos);
-        if (targetPiece != null && targetPiece.color() == colorEnum) {
+        int from = Move.from(move);
+        if (!makeLegalMove(Move.of(from, Move.to(move), board[from]))) {
             return false;
         }
-        
-        board.remove(fromPos);
-        board.put(toPos, Piece.of(colorEnum, PieceType.GENERAL));
-        
-        checkGameOver(targetPiece);
+        checkNoLegalReply();
+        checkRepetition();
         return true;
     }
     
-    public boolean moveGuard(String color, int fromRow, int fromCol, int toRow, int toCol) {
-        Color colorEnum = Color.fromString(color);
-        Position fromPos = Position.of(fromRow, fromCol);
-        Position toPos = Position.of(toRow, toCol);
-        
-        if (!isValidGuardMove(colorEnum, fromPos, toPos)) {
+    /**
+     * 對局中的一手：遊戲已結束或起點不是走棋方的棋子時拒絕，其餘同 move
+     * 由外部輸入（對局伺服、開局清單、UCCI 指令）走子時使用；move 本身不檢查輪到哪一方
+     */
+    public boolean playTurn(int move) {
+        int from = Move.from(move);
+        return !gameOver && from < Square.COUNT && PieceCode.isColor(board[from], sideToMove) && move(move);
+    }
+    
+    /**
+     * 只檢查起點棋子與其走法規則，不檢查己方將軍是否因此被將；不修改棋盤
+     */
+    boolean isPseudoLegal(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (from >= Square.COUNT || to >= Square.COUNT) {
             return false;
         }
         
-        Piece targetPiece = board.get(toPos);
-        if (targetPiece != null && targetPiece.color() == colorEnum) {
+        int piece = board[from];
+        if (piece == PieceCode.EMPTY) {
+            return false;
+        }
+        int expectedPiece = Move.piece(move);
+        if (expectedPiece != PieceCode.EMPTY && expectedPiece != piece) {
             return false;
         }
         
-        board.remove(fromPos);
-        board.put(toPos, Piece.of(colorEnum, PieceType.GUARD));
+        return !PieceCode.isColor(board[to], PieceCode.color(piece)) && isValidMove(piece, from, to);
+    }
+    
+    public boolean move(Color color, PieceType pieceType, int fromRow, int fromCol, int toRow, int toCol) {
+        Objects.requireNonNull(color, "Color cannot be null");
+        Objects.requireNonNull(pieceType, "PieceType cannot be null");
         
-        checkGameOver(targetPiece);
-        return true;
+        int from = Square.of(fromRow, fromCol);
+        int to = Square.of(toRow, toCol);
+        return move(Move.of(from, to, PieceCode.of(color, pieceType)));
+    }
+    
+    public boolean moveGeneral(String color, int fromRow, int fromCol, int toRow, int toCol) {
+        return move(Color.fromString(color), PieceType.GENERAL, fromRow, fromCol, toRow, toCol);
+    }
+    
+    public boolean moveGuard(String color, int fromRow, int fromCol, int toRow, int toCol) {
+        return move(Color.fromString(color), PieceType.GUARD, fromRow, fromCol, toRow, toCol);
     }
     
     public boolean moveRook(String color, int fromRow, int fromCol, int toRow, int toCol) {
-        Color colorEnum = Color.fromString(color);
-        Position fromPos = Position.of(fromRow, fromCol);
-        Position toPos = Position.of(toRow, toCol);
-        
-        if (!isValidRookMove(colorEnum, fromPos, toPos)) {
-            return false;
-        }
-        
-        Piece targetPiece = board.get(toPos);
-        if (targetPiece != null && targetPiece.color() == colorEnum) {
-            return false;
-        }
-        
-        board.remove(fromPos);
-        board.put(toPos, Piece.of(colorEnum, PieceType.ROOK));
-        
-        checkGameOver(targetPiece);
-        return true;
+        return move(Color.fromString(color), PieceType.ROOK, fromRow, fromCol, toRow, toCol);
     }
     
     public boolean moveHorse(String color, int fromRow, int fromCol, int toRow, int toCol) {
-        Color colorEnum = Color.fromString(color);
-        Position fromPos = Position.of(fromRow, fromCol);
-        Position toPos = Position.of(toRow, toCol);
-        
-        if (!isValidHorseMove(colorEnum, fromPos, toPos)) {
-            return false;
-        }
-        
-        Piece targetPiece = board.get(toPos);
-        if (targetPiece != null && targetPiece.color() == colorEnum) {
-            return false;
+        return move(Color.fromString(color), PieceType.HORSE, fromRow, fromCol, toRow, toCol);
+    }
+    
+    public boolean moveCannon(String color, int fromRow, int fromCol, int toRow, int toCol) {
+        return move(Color.fromString(color), PieceType.CANNON, fromRow, fromCol, toRow, toCol);
+    }
+    
+    public boolean moveSoldier(String color, int fromRow, int fromCol, int toRow, int toCol) {
+        return move(Color.fromString(color), PieceType.SOLDIER, fromRow, fromCol, toRow, toCol);
+    }
+
+    public boolean moveElephant(String color, int fromRow, int fromCol, int toRow, int toCol) {
+        return move(Color.fromString(color), PieceType.ELEPHANT, fromRow, fromCol, toRow, toCol);
+    }
+
+    /**
+     * 直接在棋盤上套用走法並推入悔棋堆疊，不做任何規則驗證
+     * 走法必須包含 PieceCode（由 generateLegalMoves 或 move 產生的走法皆符合）
+     * O(1) 且不配置物件；可用 unmakeMove 還原
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int capturedPiece = board[to];
+        
+        if (ply == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, ply * 2);
+            hashHistory = Arrays.copyOf(hashHistory, ply * 2);
+        }
+        hashHistory[ply] = hash;
+        undoStack[ply++] = (move & UNDO_MOVE_MASK)
+                | (capturedPiece << UNDO_CAPTURED_SHIFT)
+                | (gameOver ? UNDO_GAME_OVER_BIT : 0)
+                | (winnerIndex() << UNDO_WINNER_SHIFT)
+                | (sideToMove == Color.BLACK ? UNDO_BLACK_TO_MOVE_BIT : 0);
+        
+        if (capturedPiece != PieceCode.EMPTY) {
+            removePiece(to);
+        }
+        int piece = removePiece(from);
+        addPiece(to, piece);
+        setSideToMove(PieceCode.color(piece).opposite());
+        
+        checkGameOver(capturedPiece);
+    }
+    
+    /**
+     * 還原最近一次的 makeMove：放回被吃的棋子以及原本的勝負狀態
+     */
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to unmake");
         }
+        int entry = undoStack[--ply];
+        int from = Move.from(entry);
+        int to = Move.to(entry);
         
-        board.remove(fromPos);
-        board.put(toPos, Piece.of(colorEnum, PieceType.HORSE));
+        int capturedPiece = capturedPiece(entry);
         
-        checkGameOver(targetPiece);
-        return true;
+        addPiece(from, removePiece(to));
+        if (capturedPiece != PieceCode.EMPTY) {
+            addPiece(to, capturedPiece);
+        }
+        gameOver = (entry & UNDO_GAME_OVER_BIT) != 0;
+        winner = WINNERS[(entry >>> UNDO_WINNER_SHIFT) & UNDO_WINNER_MASK];
+        setSideToMove((entry & UNDO_BLACK_TO_MOVE_BIT) != 0 ? Color.BLACK : Color.RED);
     }
     
-    public boolean moveCannon(String color, int fromRow, int fromCol, int toRow, int toCol) {
-        Color colorEnum = Color.fromString(color);
-        Position fromPos = Position.of(fromRow, fromCol);
-        Position toPos = Position.of(toRow, toCol);
-        
-        if (!isValidCannonMove(colorEnum, fromPos, toPos)) {
-            return false;
+    private static int capturedPiece(int undoEntry) {
+        return (undoEntry >>> UNDO_CAPTURED_SHIFT) & 0xF;
+    }
+    
+    /**
+     * 目前局面在最後一次吃子之後、先前出現過的次數（不含目前這一次）
+     * 只往回掃描到最後一次吃子為止，不配置物件
+     */
+    public int repetitionCount() {
+        int count = 0;
+        for (int i = ply - 1; i >= 0 && capturedPiece(undoStack[i]) == PieceCode.EMPTY; i--) {
+            if (hashHistory[i] == hash) {
+                count++;
+            }
         }
-        
-        Piece targetPiece = board.get(toPos);
-        if (targetPiece != null && targetPiece.color() == colorEnum) {
-            return false;
+        return count;
+    }
+    
+    /**
+     * 目前局面是否在最後一次吃子之後出現過（搜尋中視為和棋）
+     */
+    public boolean isRepetition() {
+        return previousOccurrence() >= 0;
+    }
+    
+    /**
+     * 判定最近一個重複循環中雙方是否長將或長捉
+     * 以悔棋退回循環起點再逐步重走，於每一步檢查是否將軍或捉子；回傳前局面完全還原
+     * 長將：該方循環內每一步都將軍；長捉：每一步都將軍或捉子，且至少捉子一次
+     * 捉子：走動的棋子可以吃掉對方價值較高、或沒有保護的非將帥棋子
+     */
+    public RepetitionStatus repetitionStatus() {
+        int start = previousOccurrence();
+        if (start < 0) {
+            return RepetitionStatus.NONE;
+        }
+        boolean wasGameOver = gameOver;
+        Color previousWinner = winner;
+        int cycleLength = ply - start;
+        for (int i = 0; i < cycleLength; i++) {
+            unmakeMove();
+        }
+        
+        int redMoves = 0;
+        int redChecks = 0;
+        int redChases = 0;
+        int blackMoves = 0;
+        int blackChecks = 0;
+        int blackChases = 0;
+        int nextMove = undoStack[ply] & UNDO_MOVE_MASK;
+        for (int i = 0; i < cycleLength; i++) {
+            int move = nextMove;
+            makeMove(move);
+            // 捉子判定會試走並覆寫 undoStack[ply]，先取出下一步
+            nextMove = i + 1 < cycleLength ? undoStack[ply] & UNDO_MOVE_MASK : Move.NONE;
+            boolean check = isInCheck(sideToMove);
+            boolean chase = !check && isChasing(Move.to(move));
+            if (PieceCode.color(Move.piece(move)) == Color.RED) {
+                redMoves++;
+                redChecks += check ? 1 : 0;
+                redChases += chase ? 1 : 0;
+            } else {
+                blackMoves++;
+                blackChecks += check ? 1 : 0;
+                blackChases += chase ? 1 : 0;
+            }
         }
+        // 重走不會重新判定將死、重複等結果，還原呼叫前的勝負狀態
+        gameOver = wasGameOver;
+        winner = previousWinner;
         
-        board.remove(fromPos);
-        board.put(toPos, Piece.of(colorEnum, PieceType.CANNON));
-        
-        checkGameOver(targetPiece);
-        return true;
+        boolean redPerpetualCheck = redMoves > 0 && redChecks == redMoves;
+        boolean blackPerpetualCheck = blackMoves > 0 && blackChecks == blackMoves;
+        if (redPerpetualCheck != blackPerpetualCheck) {
+            return redPerpetualCheck ? RepetitionStatus.RED_PERPETUAL_CHECK : RepetitionStatus.BLACK_PERPETUAL_CHECK;
+        }
+        if (!redPerpetualCheck) {
+            boolean redPerpetualChase = redChases > 0 && redChecks + redChases == redMoves;
+            boolean blackPerpetualChase = blackChases > 0 && blackChecks + blackChases == blackMoves;
+            if (redPerpetualChase != blackPerpetualChase) {
+                return redPerpetualChase ? RepetitionStatus.RED_PERPETUAL_CHASE : RepetitionStatus.BLACK_PERPETUAL_CHASE;
+            }
+        }
+        return RepetitionStatus.DRAW;
     }
     
-    public boolean moveSoldier(String color, int fromRow, int fromCol, int toRow, int toCol) {
-        Color colorEnum = Color.fromString(color);
-        Position fromPos = Position.of(fromRow, fromCol);
-        Position toPos = Position.of(toRow, toCol);
-        
-        if (!isValidSoldierMove(colorEnum, fromPos, toPos)) {
-            return false;
+    /**
+     * 最近一次與目前局面相同的 ply（該步走之前的局面），沒有則回傳 -1
+     */
+    private int previousOccurrence() {
+        for (int i = ply - 1; i >= 0 && capturedPiece(undoStack[i]) == PieceCode.EMPTY; i--) {
+            if (hashHistory[i] == hash) {
+                return i;
+            }
         }
-        
-        Piece targetPiece = board.get(toPos);
-        if (targetPiece != null && targetPiece.color() == colorEnum) {
-            return false;
+        return -1;
+    }
+    
+    /**
+     * 將棋子放到空格上，並同步更新將軍位置與佔用遮罩
+     */
+    private void addPiece(int square, int piece) {
+        board[square] = (byte) piece;
+        hash ^= Zobrist.pieceKey(piece, square);
+        pieceCount++;
+        materialKey += 1L << (piece * 3);
+        pieceSquareScore += evaluationWeights.squareScore(piece, square);
+        rankOccupancy[Square.row(square) - 1] |= 1 << (Square.col(square) - 1);
+        fileOccupancy[Square.col(square) - 1] |= 1 << (Square.row(square) - 1);
+        if (PieceCode.type(piece) == PieceType.GENERAL) {
+            generalSquares[PieceCode.color(piece).ordinal()] = square;
         }
-        
-        board.remove(fromPos);
-        board.put(toPos, Piece.of(colorEnum, PieceType.SOLDIER));
-        
-        checkGameOver(targetPiece);
-        return true;
     }
-
-    public boolean moveElephant(String color, int fromRow, int fromCol, int toRow, int toCol) {
-        Color colorEnum = Color.fromString(color);
-        Position fromPos = Position.of(fromRow, fromCol);
-        Position toPos = Position.of(toRow, toCol);
-        
-        if (!isValidElephantMove(colorEnum, fromPos, toPos)) {
-            return false;
+    
+    /**
+     * 移除格子上的棋子並回傳其 PieceCode，同步更新將軍位置與佔用遮罩
+     */
+    private int removePiece(int square) {
+        int piece = board[square];
+        board[square] = PieceCode.EMPTY;
+        hash ^= Zobrist.pieceKey(piece, square);
+        pieceCount--;
+        materialKey -= 1L << (piece * 3);
+        pieceSquareScore -= evaluationWeights.squareScore(piece, square);
+        rankOccupancy[Square.row(square) - 1] &= ~(1 << (Square.col(square) - 1));
+        fileOccupancy[Square.col(square) - 1] &= ~(1 << (Square.row(square) - 1));
+        if (PieceCode.type(piece) == PieceType.GENERAL
+                && generalSquares[PieceCode.color(piece).ordinal()] == square) {
+            generalSquares[PieceCode.color(piece).ordinal()] = -1;
+        }
+        return piece;
+    }
+    
+    /**
+     * 目前局面的 64-bit Zobrist 雜湊（棋子位置 + 走棋方），O(1) 取得
+     */
+    public long positionHash() {
+        return hash;
+    }
+    
+    public Color sideToMove() {
+        return sideToMove;
+    }
+    
+    /**
+     * 設定走棋方（擺局用）；一般走子後走棋方會自動換成對手
+     */
+    public void setSideToMove(Color color) {
+        Objects.requireNonNull(color, "Color cannot be null");
+        hash ^= Zobrist.sideKey(sideToMove) ^ Zobrist.sideKey(color);
+        sideToMove = color;
+    }
+    
+    /**
+     * 指定顏色將軍所在的格子，不在棋盤上時回傳 -1
+     */
+    public int generalSquare(Color color) {
+        return generalSquares[color.ordinal()];
+    }
+    
+    /**
+     * 棋盤上的棋子總數（含雙方將帥），增量維護
+     */
+    public int pieceCount() {
+        return pieceCount;
+    }
+    
+    /**
+     * 子力的鍵（同 TablebaseLayout.materialKey），增量維護
+     */
+    long materialKey() {
+        return materialKey;
+    }
+    
+    /**
+     * 紅方觀點的子力 + 位置分，O(1) 取得；完整的評估見 Evaluation
+     */
+    public int pieceSquareScore() {
+        return pieceSquareScore;
+    }
+    
+    public EvaluationWeights evaluationWeights() {
+        return evaluationWeights;
+    }
+    
+    /**
+     * 更換評估權重，並以新權重重新累計目前局面的子力 + 位置分
+     */
+    public void setEvaluationWeights(EvaluationWeights weights) {
+        Objects.requireNonNull(weights, "EvaluationWeights cannot be null");
+        this.evaluationWeights = weights;
+        this.pieceSquareScore = 0;
+        for (int square = 0; square < Square.COUNT; square++) {
+            if (board[square] != PieceCode.EMPTY) {
+                pieceSquareScore += weights.squareScore(board[square], square);
+            }
         }
-        
-        Piece targetPiece = board.get(toPos);
-        if (targetPiece != null && targetPiece.color() == colorEnum) {
-            return false;
+    }
+    
+    /**
+     * 第 row 行（0-based）的 9-bit 佔用遮罩（bit = col - 1）
+     */
+    int rankOccupancy(int row) {
+        return rankOccupancy[row];
+    }
+    
+    /**
+     * 第 col 列（0-based）的 10-bit 佔用遮罩（bit = row - 1）
+     */
+    int fileOccupancy(int col) {
+        return fileOccupancy[col];
+    }
+    
+    /**
+     * 已套用（尚未還原）的走法數
+     */
+    public int ply() {
+        return ply;
+    }
+    
+    /**
+     * 最後一次吃子之後的步數（仍在悔棋堆疊中的部分），重複局面判定只看這段紀錄
+     */
+    int reversiblePly() {
+        int count = 0;
+        for (int i = ply - 1; i >= 0 && capturedPiece(undoStack[i]) == PieceCode.EMPTY; i--) {
+            count++;
         }
-        
-        board.remove(fromPos);
-        board.put(toPos, Piece.of(colorEnum, PieceType.ELEPHANT));
-        
-        checkGameOver(targetPiece);
-        return true;
+        return count;
     }
-
+    
+    /**
+     * 最近一次套用的走法（含 PieceCode）；沒有走法時回傳 Move.NONE
+     */
+    int lastMove() {
+        return ply == 0 ? Move.NONE : undoStack[ply - 1] & UNDO_MOVE_MASK;
+    }
+    
     public boolean isGameOver() {
         return gameOver;
     }
@@ -197,342 +562,435 @@ public class ChineseChessService {
     }
     
     /**
-     * 檢查位置是否在宮內
-     * 紅方宮：行 1-3，列 4-6
-     * 黑方宮：行 8-10，列 4-6
+     * 對局結果的精簡編碼：0 表示尚未結束，否則為 1 + 勝方索引（和棋為 1）
+     * 供 GameSession 把閒置的棋盤收起時與 PositionCodec 一起保存
      */
-    private boolean isInPalace(Color color, Position position) {
-        int row = position.row();
-        int col = position.col();
-        
-        // 列必須在 4-6 之間
-        if (col < PALACE_MIN_COL || col > PALACE_MAX_COL) {
-            return false;
-        }
-        
-        if (Color.RED == color) {
-            // 紅方宮：行 1-3
-            return row >= RED_PALACE_MIN_ROW && row <= RED_PALACE_MAX_ROW;
-        } else if (Color.BLACK == color) {
-            // 黑方宮：行 8-10
-            return row >= BLACK_PALACE_MIN_ROW && row <= BLACK_PALACE_MAX_ROW;
-        }
-        
-        return false;
+    int resultCode() {
+        return gameOver ? 1 + winnerIndex() : 0;
+    }
+    
+    void restoreResult(int resultCode) {
+        gameOver = resultCode != 0;
+        winner = gameOver ? WINNERS[resultCode - 1] : null;
     }
     
     /**
-     * 檢查兩個將軍是否面對面
-     * 兩將面對面的條件：在同一列且中間沒有其他棋子
+     * 取得指定格子上的 PieceCode（0 表示空格），供引擎熱路徑使用
      */
-    private boolean areGeneralsFacing() {
-        // 找到紅將和黑將的位置
-        Position redGeneralPos = null;
-        Position blackGeneralPos = null;
-        
-        for (Map.Entry<Position, Piece> entry : board.entrySet()) {
-            Position position = entry.getKey();
-            Piece piece = entry.getValue();
-            
-            if (piece.color() == Color.RED && piece.type() == PieceType.GENERAL) {
-                redGeneralPos = position;
-            } else if (piece.color() == Color.BLACK && piece.type() == PieceType.GENERAL) {
-                blackGeneralPos = position;
+    public int pieceCodeAt(int square) {
+        return board[square];
+    }
+    
+    /**
+     * 取得指定位置的棋子，空格回傳 null
+     */
+    public Piece getPiece(int row, int col) {
+        return Piece.fromCode(board[Square.of(row, col)]);
+    }
+    
+    /**
+     * 產生指定顏色的所有合法走法，寫入呼叫端提供的緩衝區
+     * 緩衝區長度至少需為 MAX_MOVES；回傳寫入的走法數量
+     * 走法編碼見 Move，並包含移動的 PieceCode
+     */
+    public int generateLegalMoves(Color color, int[] moves) {
+        Objects.requireNonNull(color, "Color cannot be null");
+        return generateMoves(color, false, moves, MAX_MOVES);
+    }
+    
+    /**
+     * 只產生吃子的合法走法（供靜態搜尋使用），用法同 generateLegalMoves
+     */
+    public int generateLegalCaptures(Color color, int[] moves) {
+        Objects.requireNonNull(color, "Color cannot be null");
+        return generateMoves(color, true, moves, MAX_MOVES);
+    }
+    
+    /**
+     * 產生走法；每走完一枚棋子檢查一次，數量達到 limit 時提前結束（limit = 1 即「是否還有合法走法」）
+     */
+    private int generateMoves(Color color, boolean capturesOnly, int[] moves, int limit) {
+        int count = 0;
+        for (int from = 0; from < Square.COUNT && count < limit; from++) {
+            int piece = board[from];
+            if (!PieceCode.isColor(piece, color)) {
+                continue;
             }
+            
+            count = addPieceMoves(piece, from, capturesOnly, moves, count);
         }
-        
-        // 如果找不到其中一個將軍，則不面對面
-        if (redGeneralPos == null || blackGeneralPos == null) {
-            return false;
-        }
-        
-        // 檢查是否在同一列
-        if (redGeneralPos.col() != blackGeneralPos.col()) {
-            return false;
-        }
-        
-        // 檢查兩將之間是否有其他棋子
-        int minRow = Math.min(redGeneralPos.row(), blackGeneralPos.row());
-        int maxRow = Math.max(redGeneralPos.row(), blackGeneralPos.row());
-        
-        for (int row = minRow + 1; row < maxRow; row++) {
-            Position checkPos = Position.of(row, redGeneralPos.col());
-            if (board.containsKey(checkPos)) {
-                return false; // 中間有棋子，不面對面
+        return count;
+    }
+    
+    private int addPieceMoves(int piece, int from, boolean capturesOnly, int[] moves, int count) {
+        int color = PieceCode.color(piece).ordinal();
+        return switch (PieceCode.type(piece)) {
+            case ROOK -> addSlidingMoves(piece, from, false, capturesOnly, moves, count);
+            case CANNON -> addSlidingMoves(piece, from, true, capturesOnly, moves, count);
+            case HORSE -> addJumpMoves(piece, from, MoveTables.HORSE, capturesOnly, moves, count);
+            case ELEPHANT -> addJumpMoves(piece, from, MoveTables.ELEPHANT[color], capturesOnly, moves, count);
+            case GUARD -> addJumpMoves(piece, from, MoveTables.GUARD[color], capturesOnly, moves, count);
+            case GENERAL -> addJumpMoves(piece, from, MoveTables.GENERAL[color], capturesOnly, moves, count);
+            case SOLDIER -> addJumpMoves(piece, from, MoveTables.SOLDIER[color], capturesOnly, moves, count);
+        };
+    }
+    
+    /**
+     * 跳躍類棋子直接走訪預先計算的走法表：每個終點只需檢查阻擋格與終點上的棋子
+     */
+    private int addJumpMoves(int piece, int from, JumpTable table, boolean capturesOnly,
+                             int[] moves, int count) {
+        Color color = PieceCode.color(piece);
+        int[] targets = table.targets(from);
+        int[] blockers = table.blockers(from);
+        for (int i = 0; i < targets.length; i++) {
+            int to = targets[i];
+            int blocker = blockers[i];
+            if (capturesOnly && board[to] == PieceCode.EMPTY) {
+                continue;
+            }
+            if (blocker == JumpTable.NO_BLOCKER || board[blocker] == PieceCode.EMPTY) {
+                count = addMoveIfLegal(piece, color, from, to, moves, count);
             }
         }
-        
-        return true; // 兩將面對面
+        return count;
     }
     
     /**
-     * 檢查從起始位置到目標位置的路徑是否清晰
-     * 適用於直線移動（橫向或縱向）
+     * 車與炮以行/列佔用遮罩查表取得所有終點
+     * 車可到達空格與第一個遇到的棋子；炮的空格走法相同，吃子則取跳過炮架後的棋子
      */
-    private boolean isPathClear(Position fromPos, Position toPos) {
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
-        
-        // 計算移動方向
-        int rowStep = 0;
-        int colStep = 0;
+    private int addSlidingMoves(int piece, int from, boolean isCannon, boolean capturesOnly,
+                                int[] moves, int count) {
+        Color color = PieceCode.color(piece);
+        int row = Square.row(from) - 1;
+        int col = Square.col(from) - 1;
         
-        if (fromRow != toRow) {
-            rowStep = (toRow > fromRow) ? 1 : -1;
+        int rankMask = rankOccupancy[row];
+        int rankTargets = SlideTables.rankSlides(col, rankMask);
+        if (isCannon) {
+            rankTargets = (rankTargets & ~rankMask) | SlideTables.rankCannonCaptures(col, rankMask);
         }
-        if (fromCol != toCol) {
-            colStep = (toCol > fromCol) ? 1 : -1;
+        if (capturesOnly) {
+            rankTargets &= rankMask;
         }
-        
-        // 檢查路徑上的每一格（不包括起始和目標位置）
-        int currentRow = fromRow + rowStep;
-        int currentCol = fromCol + colStep;
-        
-        while (currentRow != toRow || currentCol != toCol) {
-            Position checkPos = Position.of(currentRow, currentCol);
-            if (board.containsKey(checkPos)) {
-                return false; // 路徑被阻擋
-            }
-            
-            currentRow += rowStep;
-            currentCol += colStep;
+        for (int bits = rankTargets; bits != 0; bits &= bits - 1) {
+            int to = row * BOARD_COLS + Integer.numberOfTrailingZeros(bits);
+            count = addMoveIfLegal(piece, color, from, to, moves, count);
         }
         
-        return true; // 路徑清晰
+        int fileMask = fileOccupancy[col];
+        int fileTargets = SlideTables.fileSlides(row, fileMask);
+        if (isCannon) {
+            fileTargets = (fileTargets & ~fileMask) | SlideTables.fileCannonCaptures(row, fileMask);
+        }
+        if (capturesOnly) {
+            fileTargets &= fileMask;
+        }
+        for (int bits = fileTargets; bits != 0; bits &= bits - 1) {
+            int to = Integer.numberOfTrailingZeros(bits) * BOARD_COLS + col;
+            count = addMoveIfLegal(piece, color, from, to, moves, count);
+        }
+        return count;
+    }
+    
+    private int addMoveIfLegal(int piece, Color color, int from, int to, int[] moves, int count) {
+        if (PieceCode.isColor(board[to], color)) {
+            return count;
+        }
+        int move = Move.of(from, to, piece);
+        if (!leavesGeneralInCheck(move, color)) {
+            moves[count++] = move;
+        }
+        return count;
     }
     
     /**
-     * 檢查馬腳是否被堵（蹩腿）
-     * 馬走日字時，必須檢查相鄰的直線方向是否有棋子阻擋
+     * 以 makeMove/unmakeMove 試走，檢查己方將軍是否被將（含兩將照面）
      */
-    private boolean isHorseBlocked(Position fromPos, Position toPos) {
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
-        
-        // 計算移動差距
-        int rowDiff = toRow - fromRow;
-        int colDiff = toCol - fromCol;
-        
-        // 確定馬腳位置（相鄰的直線方向）
-        int legRow, legCol;
-        
-        if (Math.abs(rowDiff) == HORSE_L_SHAPE_LONG) {
-            // 縱向移動2格，馬腳在縱向相鄰位置
-            legRow = fromRow + (rowDiff > 0 ? 1 : -1);
-            legCol = fromCol;
-        } else {
-            // 橫向移動2格，馬腳在橫向相鄰位置
-            legRow = fromRow;
-            legCol = fromCol + (colDiff > 0 ? 1 : -1);
+    private boolean leavesGeneralInCheck(int move, Color color) {
+        makeMove(move);
+        boolean inCheck = isInCheck(color);
+        unmakeMove();
+        return inCheck;
+    }
+    
+    private boolean isValidMove(int piece, int from, int to) {
+        Color color = PieceCode.color(piece);
+        return switch (PieceCode.type(piece)) {
+            case GENERAL -> isValidGeneralMove(color, from, to);
+            case GUARD -> isValidGuardMove(color, from, to);
+            case ROOK -> isValidRookMove(color, from, to);
+            case HORSE -> isValidHorseMove(color, from, to);
+            case CANNON -> isValidCannonMove(color, from, to);
+            case SOLDIER -> isValidSoldierMove(color, from, to);
+            case ELEPHANT -> isValidElephantMove(color, from, to);
+        };
+    }
+    
+    /**
+     * 套用已通過棋子規則驗證的走法；若己方將軍因此被將（含兩將照面）則還原並視為非法
+     */
+    private boolean makeLegalMove(int move) {
+        Color color = PieceCode.color(Move.piece(move));
+        makeMove(move);
+        if (isInCheck(color)) {
+            unmakeMove();
+            return false;
         }
-        
-        // 檢查馬腳位置是否有棋子
-        Position legPosition = Position.of(legRow, legCol);
-        return board.containsKey(legPosition);
+        return true;
     }
     
     /**
-     * 檢查炮的攻擊是否有效
-     * 炮攻擊時必須跳過一個棋子（炮架）
+     * 指定顏色的將軍是否正被將（含兩將照面），將軍不在棋盤上時回傳 false
      */
-    private boolean isCannonAttackValid(Position fromPos, Position toPos) {
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
-        
-        // 計算移動方向
-        int rowStep = 0;
-        int colStep = 0;
-        
-        if (fromRow != toRow) {
-            rowStep = (toRow > fromRow) ? 1 : -1;
+    public boolean isInCheck(Color color) {
+        Objects.requireNonNull(color, "Color cannot be null");
+        int general = generalSquares[color.ordinal()];
+        return general >= 0 && (isAttackedBy(general, color.opposite()) || areGeneralsFacing());
+    }
+    
+    /**
+     * 被將且沒有任何合法走法
+     */
+    public boolean isCheckmate(Color color) {
+        return isInCheck(color) && !hasLegalMove(color);
+    }
+    
+    /**
+     * 未被將但沒有任何合法走法（困斃）；將軍必須在棋盤上。象棋規則中困斃同樣判負
+     */
+    public boolean isStalemate(Color color) {
+        return generalSquare(color) >= 0 && !isInCheck(color) && !hasLegalMove(color);
+    }
+    
+    private boolean hasLegalMove(Color color) {
+        return generateMoves(color, false, replyMoves, 1) > 0;
+    }
+    
+    /**
+     * 由格子反向查表找出攻擊它的車、炮、馬、兵，不掃描整個棋盤
+     * 士、象無法離開己方半場，將帥之間只有照面一種攻擊，因此只有這四種棋子需要檢查
+     */
+    boolean isAttackedBy(int square, Color attacker) {
+        int row = Square.row(square) - 1;
+        int col = Square.col(square) - 1;
+        int rook = PieceCode.of(attacker, PieceType.ROOK);
+        int cannon = PieceCode.of(attacker, PieceType.CANNON);
+        
+        // 車：兩個方向第一個遇到的棋子；炮：跳過炮架後第一個遇到的棋子
+        int rankMask = rankOccupancy[row];
+        for (int bits = SlideTables.rankSlides(col, rankMask) & rankMask; bits != 0; bits &= bits - 1) {
+            if (board[row * BOARD_COLS + Integer.numberOfTrailingZeros(bits)] == rook) {
+                return true;
+            }
         }
-        if (fromCol != toCol) {
-            colStep = (toCol > fromCol) ? 1 : -1;
+        for (int bits = SlideTables.rankCannonCaptures(col, rankMask); bits != 0; bits &= bits - 1) {
+            if (board[row * BOARD_COLS + Integer.numberOfTrailingZeros(bits)] == cannon) {
+                return true;
+            }
         }
-        
-        // 計算路徑上的棋子數量（不包括起始和目標位置）
-        int pieceCount = 0;
-        int currentRow = fromRow + rowStep;
-        int currentCol = fromCol + colStep;
-        
-        while (currentRow != toRow || currentCol != toCol) {
-            Position checkPos = Position.of(currentRow, currentCol);
-            if (board.containsKey(checkPos)) {
-                pieceCount++;
+        int fileMask = fileOccupancy[col];
+        for (int bits = SlideTables.fileSlides(row, fileMask) & fileMask; bits != 0; bits &= bits - 1) {
+            if (board[Integer.numberOfTrailingZeros(bits) * BOARD_COLS + col] == rook) {
+                return true;
+            }
+        }
+        for (int bits = SlideTables.fileCannonCaptures(row, fileMask); bits != 0; bits &= bits - 1) {
+            if (board[Integer.numberOfTrailingZeros(bits) * BOARD_COLS + col] == cannon) {
+                return true;
             }
-            
-            currentRow += rowStep;
-            currentCol += colStep;
         }
         
-        // 炮攻擊時路徑上必須有且僅有一個棋子（炮架）
-        return pieceCount == CANNON_REQUIRED_JUMP_PIECES;
+        return isAttackedByJump(square, MoveTables.HORSE_ATTACKERS, PieceCode.of(attacker, PieceType.HORSE))
+                || isAttackedByJump(square, MoveTables.SOLDIER_ATTACKERS[attacker.ordinal()],
+                        PieceCode.of(attacker, PieceType.SOLDIER));
     }
-
-    private boolean isValidSoldierMove(Color color, Position fromPos, Position toPos) {
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
-
-        int rowDiff = toRow - fromRow;
-        int colDiff = Math.abs(toCol - fromCol);
-        
-        if (Color.RED == color) {
-            if (fromRow <= RIVER_BOUNDARY) {
-                return rowDiff == GENERAL_MOVE_DISTANCE && colDiff == 0;
-            } else {
-                return (rowDiff == GENERAL_MOVE_DISTANCE && colDiff == 0) || 
-                       (rowDiff == 0 && colDiff == GENERAL_MOVE_DISTANCE);
+    
+    /**
+     * 格子上的棋子是否受己方保護：除了 isAttackedBy 的四種棋子，士、象、將也可能保護
+     * 士、象、將的走法表對稱，以 blockerOf 確認對方棋子確實能一步走到此格
+     */
+    private boolean isDefended(int square, Color defender) {
+        int index = defender.ordinal();
+        return isAttackedBy(square, defender)
+                || isDefendedByJump(square, MoveTables.GUARD[index], PieceCode.of(defender, PieceType.GUARD))
+                || isDefendedByJump(square, MoveTables.ELEPHANT[index], PieceCode.of(defender, PieceType.ELEPHANT))
+                || isDefendedByJump(square, MoveTables.GENERAL[index], PieceCode.of(defender, PieceType.GENERAL));
+    }
+    
+    private boolean isDefendedByJump(int square, JumpTable table, int piece) {
+        for (int source : table.targets(square)) {
+            if (board[source] != piece) {
+                continue;
             }
-        } else {
-            if (fromRow >= RIVER_BOUNDARY + 1) {
-                return rowDiff == -GENERAL_MOVE_DISTANCE && colDiff == 0;
-            } else {
-                return (rowDiff == -GENERAL_MOVE_DISTANCE && colDiff == 0) || 
-                       (rowDiff == 0 && colDiff == GENERAL_MOVE_DISTANCE);
+            int blocker = table.blockerOf(source, square);
+            if (blocker == JumpTable.NO_BLOCKER || (blocker >= 0 && board[blocker] == PieceCode.EMPTY)) {
+                return true;
             }
         }
+        return false;
     }
-
-    private boolean isValidGeneralMove(Color color, Position fromPos, Position toPos) {
-        if (!isInPalace(color, toPos)) {
-            return false;
+    
+    /**
+     * 格子上的棋子是否正在捉子：能合法吃掉對方價值較高、或沒有保護的非將帥棋子
+     */
+    private boolean isChasing(int square) {
+        int piece = board[square];
+        int value = PieceCode.type(piece).getValue();
+        Color victimColor = PieceCode.color(piece).opposite();
+        int count = addPieceMoves(piece, square, true, replyMoves, 0);
+        for (int i = 0; i < count; i++) {
+            int target = Move.to(replyMoves[i]);
+            PieceType victim = PieceCode.type(board[target]);
+            if (victim != PieceType.GENERAL && (victim.getValue() > value || !isDefended(target, victimColor))) {
+                return true;
+            }
         }
-        
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
-
-        int rowDiff = Math.abs(toRow - fromRow);
-        int colDiff = Math.abs(toCol - fromCol);
-        
-        if (!((rowDiff == GENERAL_MOVE_DISTANCE && colDiff == 0) || 
-              (rowDiff == 0 && colDiff == GENERAL_MOVE_DISTANCE))) {
-            return false;
+        return false;
+    }
+    
+    /**
+     * 走訪反向走法表：起點上是指定棋子且阻擋格（馬腳）為空即構成攻擊
+     */
+    private boolean isAttackedByJump(int square, JumpTable attackers, int piece) {
+        int[] sources = attackers.targets(square);
+        int[] blockers = attackers.blockers(square);
+        for (int i = 0; i < sources.length; i++) {
+            int blocker = blockers[i];
+            if (board[sources[i]] == piece && (blocker == JumpTable.NO_BLOCKER || board[blocker] == PieceCode.EMPTY)) {
+                return true;
+            }
         }
+        return false;
+    }
+    
+    private int winnerIndex() {
+        return winner == null ? 0 : winner.ordinal() + 1;
+    }
+    
+    /**
+     * 檢查兩個將軍是否面對面
+     * 兩將面對面的條件：在同一列且中間沒有其他棋子
+     */
+    private boolean areGeneralsFacing() {
+        int redGeneral = generalSquares[Color.RED.ordinal()];
+        int blackGeneral = generalSquares[Color.BLACK.ordinal()];
         
-        Piece originalPiece = board.get(fromPos);
-        Piece targetPiece = board.get(toPos);
-        
-        board.remove(fromPos);
-        board.put(toPos, Piece.of(color, PieceType.GENERAL));
-        
-        boolean facing = areGeneralsFacing();
-        
-        board.remove(toPos);
-        if (originalPiece != null) {
-            board.put(fromPos, originalPiece);
-        }
-        if (targetPiece != null) {
-            board.put(toPos, targetPiece);
+        // 如果找不到其中一個將軍，則不面對面
+        if (redGeneral < 0 || blackGeneral < 0) {
+            return false;
         }
         
-        return !facing;
-    }
-
-    private boolean isValidGuardMove(Color color, Position fromPos, Position toPos) {
-        if (!isInPalace(color, toPos)) {
+        // 檢查是否在同一列
+        int col = Square.col(redGeneral);
+        if (col != Square.col(blackGeneral)) {
             return false;
         }
         
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
+        // 以該列的佔用遮罩檢查兩將之間是否有其他棋子
+        int between = SlideTables.between(Square.row(redGeneral) - 1, Square.row(blackGeneral) - 1);
+        return (fileOccupancy[col - 1] & between) == 0;
+    }
+    
+    private boolean isValidSoldierMove(Color color, int from, int to) {
+        return isValidJump(MoveTables.SOLDIER[color.ordinal()], from, to);
+    }
 
-        int rowDiff = Math.abs(toRow - fromRow);
-        int colDiff = Math.abs(toCol - fromCol);
-        
-        return rowDiff == GUARD_DIAGONAL_DISTANCE && colDiff == GUARD_DIAGONAL_DISTANCE;
+    private boolean isValidGeneralMove(Color color, int from, int to) {
+        // 兩將照面由 makeLegalMove 與走法產生器在套用走法後統一檢查
+        return isValidJump(MoveTables.GENERAL[color.ordinal()], from, to);
     }
 
-    private boolean isValidRookMove(Color color, Position fromPos, Position toPos) {
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
+    private boolean isValidGuardMove(Color color, int from, int to) {
+        return isValidJump(MoveTables.GUARD[color.ordinal()], from, to);
+    }
 
-        if (fromRow != toRow && fromCol != toCol) {
-            return false;
-        }
-        
-        return isPathClear(fromPos, toPos);
+    private boolean isValidRookMove(Color color, int from, int to) {
+        return isValidSlide(from, to, false);
     }
 
-    private boolean isValidHorseMove(Color color, Position fromPos, Position toPos) {
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
+    private boolean isValidHorseMove(Color color, int from, int to) {
+        // 馬腳被堵（蹩腿）時不可移動
+        return isValidJump(MoveTables.HORSE, from, to);
+    }
 
-        int rowDiff = Math.abs(toRow - fromRow);
-        int colDiff = Math.abs(toCol - fromCol);
-        
-        if (!((rowDiff == HORSE_L_SHAPE_LONG && colDiff == HORSE_L_SHAPE_SHORT) || 
-              (rowDiff == HORSE_L_SHAPE_SHORT && colDiff == HORSE_L_SHAPE_LONG))) {
-            return false;
-        }
-        
-        return !isHorseBlocked(fromPos, toPos);
+    private boolean isValidCannonMove(Color color, int from, int to) {
+        // 炮攻擊時路徑上必須有且僅有一個棋子（炮架），不吃子時路徑必須清晰
+        return isValidSlide(from, to, true);
     }
 
-    private boolean isValidCannonMove(Color color, Position fromPos, Position toPos) {
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
+    private boolean isValidElephantMove(Color color, int from, int to) {
+        // 象不可過河（已內建於走法表），象眼被堵時不可移動
+        return isValidJump(MoveTables.ELEPHANT[color.ordinal()], from, to);
+    }
 
-        if (fromRow != toRow && fromCol != toCol) {
+    /**
+     * 查表驗證跳躍類棋子：終點必須在走法表中，且阻擋格（馬腳、象眼）為空
+     */
+    private boolean isValidJump(JumpTable table, int from, int to) {
+        int blocker = table.blockerOf(from, to);
+        if (blocker == JumpTable.NOT_REACHABLE) {
             return false;
         }
-        
-        Piece targetPiece = board.get(toPos);
-        
-        if (targetPiece != null) {
-            return isCannonAttackValid(fromPos, toPos);
-        } else {
-            return isPathClear(fromPos, toPos);
-        }
+        return blocker == JumpTable.NO_BLOCKER || board[blocker] == PieceCode.EMPTY;
     }
 
-    private boolean isValidElephantMove(Color color, Position fromPos, Position toPos) {
-        int fromRow = fromPos.row();
-        int fromCol = fromPos.col();
-        int toRow = toPos.row();
-        int toCol = toPos.col();
-
-        int rowDiff = Math.abs(toRow - fromRow);
-        int colDiff = Math.abs(toCol - fromCol);
-        
-        if (rowDiff != ELEPHANT_DIAGONAL_DISTANCE || colDiff != ELEPHANT_DIAGONAL_DISTANCE) {
-            return false;
+    /**
+     * 以行/列佔用遮罩查表驗證車與炮：起點與終點必須在同一行或同一列
+     */
+    private boolean isValidSlide(int from, int to, boolean isCannon) {
+        int fromRow = Square.row(from) - 1;
+        int fromCol = Square.col(from) - 1;
+        int toRow = Square.row(to) - 1;
+        int toCol = Square.col(to) - 1;
+        boolean capture = board[to] != PieceCode.EMPTY;
+        
+        if (fromRow == toRow && fromCol != toCol) {
+            int mask = rankOccupancy[fromRow];
+            int targets = isCannon && capture
+                    ? SlideTables.rankCannonCaptures(fromCol, mask)
+                    : SlideTables.rankSlides(fromCol, mask);
+            return (targets & (1 << toCol)) != 0;
+        }
+        if (fromCol == toCol && fromRow != toRow) {
+            int mask = fileOccupancy[fromCol];
+            int targets = isCannon && capture
+                    ? SlideTables.fileCannonCaptures(fromRow, mask)
+                    : SlideTables.fileSlides(fromRow, mask);
+            return (targets & (1 << toRow)) != 0;
         }
-        
-        if (Color.RED == color && toRow > RIVER_BOUNDARY) {
-            return false;
+        return false;
+    }
+
+    /**
+     * 走子後若對手被將死或困斃，遊戲結束並由走子方獲勝
+     * 需要產生對手走法，因此只在 move 中呼叫，不放在搜尋使用的 makeMove 熱路徑上
+     */
+    private void checkNoLegalReply() {
+        Color opponent = sideToMove;
+        if (!gameOver && generalSquares[opponent.ordinal()] >= 0 && !hasLegalMove(opponent)) {
+            gameOver = true;
+            winner = opponent.opposite();
         }
-        if (Color.BLACK == color && toRow < RIVER_BOUNDARY + 1) {
-            return false;
+    }
+
+    /**
+     * 局面重複達 REPETITION_LIMIT 次時遊戲結束：長將、長捉的一方判負，其餘判和（winner 為 null）
+     */
+    private void checkRepetition() {
+        if (gameOver || repetitionCount() < REPETITION_LIMIT - 1) {
+            return;
         }
-        
-        int midRow = (fromRow + toRow) / 2;
-        int midCol = (fromCol + toCol) / 2;
-        Position midPos = Position.of(midRow, midCol);
-        return board.get(midPos) == null;
+        Color offender = repetitionStatus().getOffender();
+        gameOver = true;
+        winner = offender == null ? null : offender.opposite();
     }
 
-    private void checkGameOver(Piece capturedPiece) {
-        if (capturedPiece != null && capturedPiece.type() == PieceType.GENERAL) {
+    private void checkGameOver(int capturedPiece) {
+        if (capturedPiece != PieceCode.EMPTY && PieceCode.type(capturedPiece) == PieceType.GENERAL) {
             gameOver = true;
-            winner = capturedPiece.color() == Color.RED ? Color.BLACK : Color.RED;
+            winner = PieceCode.color(capturedPiece) == Color.RED ? Color.BLACK : Color.RED;
         }
     }
-} 
\ No newline at end of file
+}
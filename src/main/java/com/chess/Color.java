@@ -14,12 +14,18 @@ public enum Color {
         return displayName;
     }
     
+    public Color opposite() {
+        return this == RED ? BLACK : RED;
+    }
+    
     public static Color fromString(String colorStr) {
-        for (Color color : Color.values()) {
-            if (color.displayName.equals(colorStr)) {
-                return color;
-            }
+        if (colorStr == null) {
+            throw new IllegalArgumentException("Invalid color: null");
         }
-        throw new IllegalArgumentException("Invalid color: " + colorStr);
+        return switch (colorStr) {
+            case "Red" -> RED;
+            case "Black" -> BLACK;
+            default -> throw new IllegalArgumentException("Invalid color: " + colorStr);
+        };
     }
 } 
\ No newline at end of file
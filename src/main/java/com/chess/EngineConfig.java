@@ -0,0 +1,32 @@
+package com.chess;
+
+import java.util.Objects;
+
+/**
+ * 對戰中一方引擎的設定：名稱、置換表大小（MB）、是否啟用走法排序與評估權重
+ */
+public record EngineConfig(String name, int hashMb, boolean moveOrdering, EvaluationWeights weights) {
+
+    public static final int DEFAULT_HASH_MB = 1;
+
+    public EngineConfig {
+        Objects.requireNonNull(name, "Name cannot be null");
+        Objects.requireNonNull(weights, "Weights cannot be null");
+        if (hashMb <= 0) {
+            throw new IllegalArgumentException("Hash size must be positive, got: " + hashMb + " MB");
+        }
+    }
+
+    /**
+     * 預設設定：DEFAULT_HASH_MB 的置換表、啟用走法排序、預設權重
+     */
+    public static EngineConfig of(String name) {
+        return new EngineConfig(name, DEFAULT_HASH_MB, true, EvaluationWeights.defaults());
+    }
+
+    SearchEngine newEngine() {
+        SearchEngine engine = new SearchEngine(new TranspositionTable(hashMb));
+        engine.setMoveOrdering(moveOrdering);
+        return engine;
+    }
+}
@@ -0,0 +1,25 @@
+package com.chess;
+
+/**
+ * 對戰中一方引擎的戰績與搜尋效能
+ * timeLosses 為超時判負的盤數（已計入 losses），searchMillis 為所有搜尋的總耗時
+ */
+public record EngineScore(String name, long wins, long draws, long losses, long timeLosses,
+                          long nodes, long searchMillis) {
+
+    public long games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * 得分率：勝 1 分、和 0.5 分
+     */
+    public double score() {
+        long games = games();
+        return games == 0 ? 0.5 : (wins + draws / 2.0) / games;
+    }
+
+    public long averageNodesPerSecond() {
+        return searchMillis == 0 ? nodes * 1000 : nodes * 1000 / searchMillis;
+    }
+}
@@ -0,0 +1,117 @@
+package com.chess;
+
+import static com.chess.ChessConstants.*;
+
+/**
+ * 靜態評估，以走棋方觀點計分
+ * - 子力 + 位置分：直接取 ChineseChessService 增量維護的值
+ * - 機動性：車、炮以滑動表、馬以走法表與馬腳計算可到達且非己方棋子的格子數
+ * - 將帥安全：每個士、象加分；將帥一步可到的宮內格子被對方攻擊則扣分
+ * 只走訪佔用遮罩中的棋子，不掃描整個棋盤；權重取自棋盤的 EvaluationWeights
+ */
+public final class Evaluation {
+
+    private Evaluation() {
+        // Utility class - prevent instantiation
+    }
+
+    public static int evaluate(ChineseChessService position) {
+        EvaluationWeights weights = position.evaluationWeights();
+        int score = position.pieceSquareScore();
+        int redDefenders = 0;
+        int blackDefenders = 0;
+        for (int row = 0; row < BOARD_ROWS; row++) {
+            for (int bits = position.rankOccupancy(row); bits != 0; bits &= bits - 1) {
+                int col = Integer.numberOfTrailingZeros(bits);
+                int square = row * BOARD_COLS + col;
+                int piece = position.pieceCodeAt(square);
+                Color color = PieceCode.color(piece);
+                PieceType type = PieceCode.type(piece);
+                if (type == PieceType.GUARD || type == PieceType.ELEPHANT) {
+                    if (color == Color.RED) {
+                        redDefenders++;
+                    } else {
+                        blackDefenders++;
+                    }
+                }
+                int weight = weights.mobility(type);
+                if (weight != 0) {
+                    int mobility = weight * mobility(position, piece, type, square, row, col);
+                    score += color == Color.RED ? mobility : -mobility;
+                }
+            }
+        }
+        score += kingSafety(position, weights, Color.RED, redDefenders);
+        score -= kingSafety(position, weights, Color.BLACK, blackDefenders);
+        return position.sideToMove() == Color.RED ? score : -score;
+    }
+
+    private static int mobility(ChineseChessService position, int piece, PieceType type, int square,
+                                int row, int col) {
+        Color color = PieceCode.color(piece);
+        return switch (type) {
+            case ROOK -> slideMobility(position, color, row, col, false);
+            case CANNON -> slideMobility(position, color, row, col, true);
+            case HORSE -> jumpMobility(position, color, MoveTables.HORSE, square);
+            case ELEPHANT -> jumpMobility(position, color, MoveTables.ELEPHANT[color.ordinal()], square);
+            case GUARD -> jumpMobility(position, color, MoveTables.GUARD[color.ordinal()], square);
+            case GENERAL -> jumpMobility(position, color, MoveTables.GENERAL[color.ordinal()], square);
+            case SOLDIER -> jumpMobility(position, color, MoveTables.SOLDIER[color.ordinal()], square);
+        };
+    }
+
+    /**
+     * 車：滑動可到的空格加上可吃的對方棋子；炮：滑動可到的空格加上隔子可吃的對方棋子
+     */
+    private static int slideMobility(ChineseChessService position, Color color, int row, int col, boolean isCannon) {
+        int rankMask = position.rankOccupancy(row);
+        int fileMask = position.fileOccupancy(col);
+        int rankSlides = SlideTables.rankSlides(col, rankMask);
+        int fileSlides = SlideTables.fileSlides(row, fileMask);
+        int count = Integer.bitCount(rankSlides & ~rankMask) + Integer.bitCount(fileSlides & ~fileMask);
+        int rankTargets = isCannon ? SlideTables.rankCannonCaptures(col, rankMask) : rankSlides & rankMask;
+        int fileTargets = isCannon ? SlideTables.fileCannonCaptures(row, fileMask) : fileSlides & fileMask;
+        for (int bits = rankTargets; bits != 0; bits &= bits - 1) {
+            count += isEnemy(position, color, row * BOARD_COLS + Integer.numberOfTrailingZeros(bits)) ? 1 : 0;
+        }
+        for (int bits = fileTargets; bits != 0; bits &= bits - 1) {
+            count += isEnemy(position, color, Integer.numberOfTrailingZeros(bits) * BOARD_COLS + col) ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static int jumpMobility(ChineseChessService position, Color color, JumpTable table, int square) {
+        int[] targets = table.targets(square);
+        int[] blockers = table.blockers(square);
+        int count = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if ((blockers[i] == JumpTable.NO_BLOCKER || position.pieceCodeAt(blockers[i]) == PieceCode.EMPTY)
+                    && !PieceCode.isColor(position.pieceCodeAt(targets[i]), color)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int kingSafety(ChineseChessService position, EvaluationWeights weights, Color color,
+                                  int defenders) {
+        int general = position.generalSquare(color);
+        if (general < 0) {
+            return 0;
+        }
+        int exposed = 0;
+        if (weights.kingExposed() != 0) {
+            for (int target : MoveTables.GENERAL[color.ordinal()].targets(general)) {
+                if (position.isAttackedBy(target, color.opposite())) {
+                    exposed++;
+                }
+            }
+        }
+        return defenders * weights.kingDefender() - exposed * weights.kingExposed();
+    }
+
+    private static boolean isEnemy(ChineseChessService position, Color color, int square) {
+        int piece = position.pieceCodeAt(square);
+        return piece != PieceCode.EMPTY && !PieceCode.isColor(piece, color);
+    }
+}
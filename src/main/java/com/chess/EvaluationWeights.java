@@ -0,0 +1,181 @@
+package com.chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.chess.ChessConstants.*;
+
+/**
+ * 評估函數的權重：子力、位置分（piece-square table）、機動性與將帥安全
+ * 權重由文字檔讀入（格式見 resources 中的 evaluation.weights），調整權重不需重新編譯
+ * 子力與位置分預先合併為 [PieceCode][Square] 的單一表格（紅方為正、黑方為負），
+ * 供 ChineseChessService 在落子與移除時增量累加
+ * 建立後不可變，可由多個棋盤與執行緒共用
+ */
+public final class EvaluationWeights {
+
+    private static final String DEFAULT_RESOURCE = "evaluation.weights";
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private static final EvaluationWeights DEFAULTS = loadDefaults();
+
+    // index = PieceCode * Square.COUNT + Square
+    private final int[] squareScores;
+    // index = PieceType.ordinal()
+    private final int[] mobility;
+    private final int kingDefender;
+    private final int kingExposed;
+
+    private EvaluationWeights(int[] material, int[][] pieceSquare, int[] mobility, int kingDefender, int kingExposed) {
+        this.squareScores = new int[PieceCode.COUNT * Square.COUNT];
+        for (Color color : Color.values()) {
+            for (PieceType type : TYPES) {
+                int code = PieceCode.of(color, type);
+                for (int square = 0; square < Square.COUNT; square++) {
+                    // 黑方以紅方視角的表格旋轉 180 度
+                    int redSquare = color == Color.RED ? square : Square.COUNT - 1 - square;
+                    int score = material[type.ordinal()] + pieceSquare[type.ordinal()][redSquare];
+                    squareScores[code * Square.COUNT + square] = color == Color.RED ? score : -score;
+                }
+            }
+        }
+        this.mobility = mobility;
+        this.kingDefender = kingDefender;
+        this.kingExposed = kingExposed;
+    }
+
+    /**
+     * 隨程式附帶的預設權重
+     */
+    public static EvaluationWeights defaults() {
+        return DEFAULTS;
+    }
+
+    public static EvaluationWeights load(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析權重檔的各行；# 之後為註解，未列出的項目為 0
+     * - material <棋種> <分數>
+     * - mobility <棋種> <分數>
+     * - king-safety defender|exposed <分數>
+     * - pst <棋種>，其後 10 行各 9 個數字，以紅方視角由第 10 行排到第 1 行
+     */
+    public static EvaluationWeights parse(List<String> lines) {
+        int[] material = new int[TYPES.length];
+        int[][] pieceSquare = new int[TYPES.length][Square.COUNT];
+        int[] mobility = new int[TYPES.length];
+        int kingDefender = 0;
+        int kingExposed = 0;
+
+        int lineIndex = 0;
+        while (lineIndex < lines.size()) {
+            String[] tokens = tokens(lines.get(lineIndex++));
+            if (tokens.length == 0) {
+                continue;
+            }
+            switch (tokens[0]) {
+                case "material" -> material[pieceType(tokens, lineIndex).ordinal()] = number(tokens, 2, lineIndex);
+                case "mobility" -> mobility[pieceType(tokens, lineIndex).ordinal()] = number(tokens, 2, lineIndex);
+                case "king-safety" -> {
+                    expectLength(tokens, 3, lineIndex);
+                    switch (tokens[1]) {
+                        case "defender" -> kingDefender = number(tokens, 2, lineIndex);
+                        case "exposed" -> kingExposed = number(tokens, 2, lineIndex);
+                        default -> throw invalid(lineIndex, "unknown king-safety term " + tokens[1]);
+                    }
+                }
+                case "pst" -> {
+                    expectLength(tokens, 2, lineIndex);
+                    int[] table = pieceSquare[pieceType(tokens, lineIndex).ordinal()];
+                    for (int row = BOARD_ROWS; row >= 1; row--) {
+                        String[] values = new String[0];
+                        while (values.length == 0 && lineIndex < lines.size()) {
+                            values = tokens(lines.get(lineIndex++));
+                        }
+                        if (values.length != BOARD_COLS) {
+                            throw invalid(lineIndex, "expected " + BOARD_COLS + " values for row " + row);
+                        }
+                        for (int col = 1; col <= BOARD_COLS; col++) {
+                            table[Square.of(row, col)] = number(values, col - 1, lineIndex);
+                        }
+                    }
+                }
+                default -> throw invalid(lineIndex, "unknown entry " + tokens[0]);
+            }
+        }
+        return new EvaluationWeights(material, pieceSquare, mobility, kingDefender, kingExposed);
+    }
+
+    /**
+     * 棋子在格子上的子力與位置分，紅方為正、黑方為負
+     */
+    public int squareScore(int pieceCode, int square) {
+        return squareScores[pieceCode * Square.COUNT + square];
+    }
+
+    public int mobility(PieceType type) {
+        return mobility[type.ordinal()];
+    }
+
+    public int kingDefender() {
+        return kingDefender;
+    }
+
+    public int kingExposed() {
+        return kingExposed;
+    }
+
+    private static EvaluationWeights loadDefaults() {
+        try (InputStream in = EvaluationWeights.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing default evaluation weights: " + DEFAULT_RESOURCE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return parse(reader.lines().toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String[] tokens(String line) {
+        int comment = line.indexOf('#');
+        String content = (comment < 0 ? line : line.substring(0, comment)).trim();
+        return content.isEmpty() ? new String[0] : content.split("\\s+");
+    }
+
+    private static PieceType pieceType(String[] tokens, int lineNumber) {
+        expectLength(tokens, tokens[0].equals("pst") ? 2 : 3, lineNumber);
+        try {
+            return PieceType.valueOf(tokens[1]);
+        } catch (IllegalArgumentException e) {
+            throw invalid(lineNumber, "unknown piece type " + tokens[1]);
+        }
+    }
+
+    private static int number(String[] tokens, int index, int lineNumber) {
+        try {
+            return Integer.parseInt(tokens[index]);
+        } catch (NumberFormatException e) {
+            throw invalid(lineNumber, "not a number: " + tokens[index]);
+        }
+    }
+
+    private static void expectLength(String[] tokens, int length, int lineNumber) {
+        if (tokens.length != length) {
+            throw invalid(lineNumber, "expected " + length + " fields");
+        }
+    }
+
+    private static IllegalArgumentException invalid(int lineNumber, String problem) {
+        return new IllegalArgumentException("Invalid evaluation weights at line " + lineNumber + ": " + problem);
+    }
+}
@@ -0,0 +1,157 @@
+package com.chess;
+
+import static com.chess.ChessConstants.*;
+
+/**
+ * 象棋 FEN 的讀取與輸出
+ * 棋盤由黑方底線（第 10 行）往紅方底線（第 1 行）排列，每行由第 1 列到第 9 列
+ * 大寫為紅方、小寫為黑方：K 將、A 士、B 象、N 馬、R 車、C 炮、P 兵（亦接受 E 象、H 馬）
+ * 走棋方 w（或 r）為紅方、b 為黑方；其後的欄位可省略，輸出時固定為 "- - 0 1"
+ */
+public final class Fen {
+
+    public static final String INITIAL_POSITION = "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w - - 0 1";
+
+    private static final String TRAILING_FIELDS = " - - 0 1";
+
+    // index = PieceCode；EMPTY 不使用
+    private static final char[] CHAR_BY_CODE = new char[PieceCode.COUNT];
+    // index = ASCII 字元；0 表示不是棋子
+    private static final byte[] CODE_BY_CHAR = new byte[128];
+
+    static {
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                int code = PieceCode.of(color, type);
+                char letter = letterOf(type);
+                char fenChar = color == Color.RED ? letter : Character.toLowerCase(letter);
+                CHAR_BY_CODE[code] = fenChar;
+                CODE_BY_CHAR[fenChar] = (byte) code;
+            }
+            // 常見的替代寫法
+            CODE_BY_CHAR[color == Color.RED ? 'E' : 'e'] = (byte) PieceCode.of(color, PieceType.ELEPHANT);
+            CODE_BY_CHAR[color == Color.RED ? 'H' : 'h'] = (byte) PieceCode.of(color, PieceType.HORSE);
+        }
+    }
+
+    private Fen() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * 清空棋盤後依 FEN 擺子並設定走棋方，悔棋紀錄一併清除
+     */
+    public static void load(ChineseChessService position, String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("Invalid FEN: null");
+        }
+        position.initializeBoard();
+
+        int row = BOARD_ROWS;
+        int col = 1;
+        int i = 0;
+        for (; i < fen.length(); i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (col != BOARD_COLS + 1 || row == 1) {
+                    throw new IllegalArgumentException("Invalid FEN rank " + row + ": " + fen);
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '9') {
+                col += c - '0';
+            } else {
+                int code = pieceCode(c);
+                if (code == PieceCode.EMPTY || col > BOARD_COLS) {
+                    throw new IllegalArgumentException("Invalid FEN piece '" + c + "' at rank " + row + ": " + fen);
+                }
+                position.putPiece(Square.of(row, col), code);
+                col++;
+            }
+            if (col > BOARD_COLS + 1) {
+                throw new IllegalArgumentException("Invalid FEN rank " + row + ": " + fen);
+            }
+        }
+        if (row != 1 || col != BOARD_COLS + 1) {
+            throw new IllegalArgumentException("Invalid FEN board: " + fen);
+        }
+
+        position.setSideToMove(parseSide(fen, i + 1));
+    }
+
+    /**
+     * 依 FEN 建立新的棋盤
+     */
+    public static ChineseChessService parse(String fen) {
+        ChineseChessService position = new ChineseChessService();
+        load(position, fen);
+        return position;
+    }
+
+    public static String toFen(ChineseChessService position) {
+        StringBuilder fen = new StringBuilder(96);
+        for (int row = BOARD_ROWS; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= BOARD_COLS; col++) {
+                int code = position.pieceCodeAt(Square.of(row, col));
+                if (code == PieceCode.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(CHAR_BY_CODE[code]);
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(position.sideToMove() == Color.RED ? " w" : " b");
+        return fen.append(TRAILING_FIELDS).toString();
+    }
+
+    /**
+     * FEN 字母對應的 PieceCode，不是棋子時回傳 PieceCode.EMPTY
+     */
+    static int pieceCode(char c) {
+        return c < CODE_BY_CHAR.length ? CODE_BY_CHAR[c] : PieceCode.EMPTY;
+    }
+
+    static char pieceChar(int code) {
+        return CHAR_BY_CODE[code];
+    }
+
+    /**
+     * 走棋方欄位可省略（預設紅方先走）
+     */
+    private static Color parseSide(String fen, int index) {
+        if (index >= fen.length()) {
+            return Color.RED;
+        }
+        return switch (fen.charAt(index)) {
+            case 'w', 'r' -> Color.RED;
+            case 'b' -> Color.BLACK;
+            default -> throw new IllegalArgumentException("Invalid FEN side to move: " + fen);
+        };
+    }
+
+    private static char letterOf(PieceType type) {
+        return switch (type) {
+            case GENERAL -> 'K';
+            case GUARD -> 'A';
+            case ELEPHANT -> 'B';
+            case HORSE -> 'N';
+            case ROOK -> 'R';
+            case CANNON -> 'C';
+            case SOLDIER -> 'P';
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.chess;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 同時進行中的大量對局：以對局編號查找，每個對局是一個 GameSession actor
+ * - 對局表為 ConcurrentHashMap，查找不加鎖，不同對局的走子互不競爭
+ * - 所有 actor 共用固定大小的執行緒池；同一對局的操作依提交順序、由單一執行緒依序執行
+ * - 背景的清掃工作每隔 idleTimeout 把閒置超過 idleTimeout 的對局收起為精簡形式（最後一次吃子時的局面 + 對局結果 + 之後的走法）
+ * 結果以 CompletableFuture 回傳，呼叫端不會持有棋盤；可由任意執行緒呼叫
+ */
+public final class GameRegistry implements AutoCloseable {
+
+    private final ConcurrentHashMap<Long, GameSession> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    // 棋盤仍在記憶體中的對局數，由各 actor 在收起與還原時更新
+    private final AtomicInteger residentGames = new AtomicInteger();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService evictor;
+
+    public GameRegistry(int threads, Duration idleTimeout) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got: " + threads);
+        }
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Idle timeout must be positive, got: " + idleTimeout);
+        }
+        long idleNanos = idleTimeout.toNanos();
+        this.workers = Executors.newFixedThreadPool(threads, daemon("game-registry-worker"));
+        this.evictor = Executors.newSingleThreadScheduledExecutor(daemon("game-registry-evictor"));
+        evictor.scheduleWithFixedDelay(() -> evictIdle(idleTimeout), idleNanos, idleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 以標準開局建立新對局，回傳對局編號
+     */
+    public long createGame() {
+        ChineseChessService board = GameSession.newBoard();
+        board.setupInitialPosition();
+        return register(board);
+    }
+
+    /**
+     * 以 FEN 建立新對局，回傳對局編號
+     */
+    public long createGame(String fen) {
+        ChineseChessService board = GameSession.newBoard();
+        Fen.load(board, fen);
+        return register(board);
+    }
+
+    /**
+     * 提交一步棋；結果為是否合法（對局已結束或不是走棋方的棋子時為 false）
+     */
+    public CompletableFuture<Boolean> submitMove(long gameId, int move) {
+        return session(gameId).move(move);
+    }
+
+    /**
+     * 在對局的 actor 上執行任意操作（例如查詢 FEN 或搜尋），task 不可保留棋盤的參照
+     */
+    public <T> CompletableFuture<T> submit(long gameId, Function<ChineseChessService, T> task) {
+        return session(gameId).submit(task);
+    }
+
+    public boolean removeGame(long gameId) {
+        GameSession session = games.remove(gameId);
+        if (session == null) {
+            return false;
+        }
+        session.discard();
+        return true;
+    }
+
+    /**
+     * 收起閒置超過 idleFor 的對局；結果為實際收起的數量
+     */
+    public CompletableFuture<Integer> evictIdle(Duration idleFor) {
+        long idle = idleFor.toNanos();
+        long now = System.nanoTime();
+        List<CompletableFuture<Boolean>> evictions = new ArrayList<>();
+        for (GameSession session : games.values()) {
+            if (now - session.lastAccessNanos() >= idle) {
+                evictions.add(session.evictIfIdle(idle));
+            }
+        }
+        return CompletableFuture.allOf(evictions.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> (int) evictions.stream().filter(CompletableFuture::join).count());
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    /**
+     * 棋盤仍在記憶體中（未收起）的對局數
+     */
+    public int residentGames() {
+        return residentGames.get();
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private long register(ChineseChessService board) {
+        long id = nextId.getAndIncrement();
+        residentGames.incrementAndGet();
+        games.put(id, new GameSession(board, workers, residentGames));
+        return id;
+    }
+
+    private GameSession session(long gameId) {
+        GameSession session = games.get(gameId);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown game: " + gameId);
+        }
+        return session;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,238 @@
+package com.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 以記憶體映射重播棋譜檔，逐步走過 move 的完整驗證路徑
+ * 檔案格式：每行一盤棋，從標準開局開始，走法為以空白分隔的 ICCS 座標（例如 "h2e2 h9g7 ..."），空行略過
+ * 檔案依行界切成多個區段，各區段分別映射並交給不同執行緒重播，整個檔案不會載入 heap
+ * 走法直接從映射的 buffer 解碼；只有非法走法才會建立字串
+ */
+public final class GameReplay {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+    private static final int PROBE_BYTES = 4096;
+
+    private final int threads;
+    private final int segmentBytes;
+
+    public GameReplay(int threads) {
+        this(threads, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * segmentBytes 為每個映射區段的大約大小（實際會延伸到下一個行界）
+     */
+    public GameReplay(int threads, int segmentBytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got: " + threads);
+        }
+        if (segmentBytes < 1) {
+            throw new IllegalArgumentException("Segment size must be positive, got: " + segmentBytes);
+        }
+        this.threads = threads;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public ReplayResult replay(Path archive) throws IOException {
+        long startTime = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            List<Segment> segments = split(channel);
+            List<SegmentReplay> replays = new ArrayList<>(segments.size());
+            for (Segment segment : segments) {
+                replays.add(new SegmentReplay(channel, segment));
+            }
+            if (threads == 1 || replays.size() == 1) {
+                for (SegmentReplay replay : replays) {
+                    replay.run();
+                }
+            } else {
+                runInParallel(replays);
+            }
+
+            long games = 0;
+            long moves = 0;
+            List<ReplayFailure> failures = new ArrayList<>();
+            for (SegmentReplay replay : replays) {
+                games += replay.games;
+                moves += replay.moves;
+                failures.addAll(replay.failures);
+            }
+            failures.sort(Comparator.comparingLong(ReplayFailure::offset));
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            return new ReplayResult(games, moves, List.copyOf(failures), elapsedMillis);
+        }
+    }
+
+    private void runInParallel(List<SegmentReplay> replays) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, replays.size()), runnable -> {
+            Thread thread = new Thread(runnable, "game-replay-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>(replays.size());
+            for (SegmentReplay replay : replays) {
+                futures.add(pool.submit(() -> {
+                    replay.run();
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                await(future);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(Future<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying games", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("Replay worker failed", e.getCause());
+        }
+    }
+
+    /**
+     * 依行界切割檔案；區段大小不超過 segmentBytes，且至少切成 threads 段以分散到各核心
+     */
+    private List<Segment> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long targetBytes = Math.max(1, Math.min(segmentBytes, (size + threads - 1) / threads));
+        List<Segment> segments = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_BYTES);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + targetBytes, size);
+            if (end < size) {
+                end = nextLineStart(channel, end - 1, size, probe);
+            }
+            segments.add(new Segment(start, end));
+            start = end;
+        }
+        return segments;
+    }
+
+    /**
+     * 從 position（含）往後找第一個換行，回傳下一行的起點；找不到時回傳檔案大小
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe)
+            throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private record Segment(long start, long end) {
+    }
+
+    /**
+     * 重播單一區段；每個區段使用自己的棋盤，逐盤以 setupInitialPosition 重設
+     */
+    private static final class SegmentReplay {
+
+        private final FileChannel channel;
+        private final Segment segment;
+        private final ChineseChessService position = new ChineseChessService();
+        private final List<ReplayFailure> failures = new ArrayList<>();
+        private long games;
+        private long moves;
+
+        SegmentReplay(FileChannel channel, Segment segment) {
+            this.channel = channel;
+            this.segment = segment;
+        }
+
+        void run() throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    segment.start(), segment.end() - segment.start());
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                replayGame(buffer, lineStart, lineEnd);
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        private void replayGame(ByteBuffer buffer, int lineStart, int lineEnd) {
+            position.setupInitialPosition();
+            int ply = 0;
+            int i = lineStart;
+            while (true) {
+                while (i < lineEnd && isWhitespace(buffer.get(i))) {
+                    i++;
+                }
+                if (i == lineEnd) {
+                    break;
+                }
+                int tokenStart = i;
+                while (i < lineEnd && !isWhitespace(buffer.get(i))) {
+                    i++;
+                }
+                ply++;
+                int move = i - tokenStart == Iccs.LENGTH ? Iccs.decode(buffer, tokenStart) : Iccs.INVALID;
+                if (!applyMove(move)) {
+                    failures.add(new ReplayFailure(segment.start() + lineStart, ply, text(buffer, tokenStart, i)));
+                    break;
+                }
+                moves++;
+            }
+            if (ply > 0) {
+                games++;
+            }
+        }
+
+        /**
+         * 走法必須由輪到的一方走出，且遊戲尚未結束
+         */
+        private boolean applyMove(int move) {
+            return move != Iccs.INVALID && position.playTurn(move);
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r';
+        }
+
+        private static String text(ByteBuffer buffer, int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.chess;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 單一對局的 actor：所有對棋盤的操作都放進自己的信箱，由共用執行緒池中的一個工作依序執行
+ * 同一時間最多只有一個執行緒處理此對局（single writer），不同對局之間互不阻擋
+ * 閒置的對局可收起為精簡形式，下一次操作時再還原：
+ * 最後一次吃子時的局面（PositionCodec 46 bytes）、1 byte 對局結果、之後的步數與每步 2 bytes 的起終點
+ * 還原時重走這段走法，重複局面與長將、長捉的判定不受收起影響；更早的悔棋紀錄則會清除
+ */
+final class GameSession {
+
+    // 每次排程最多處理的工作數，避免忙碌的對局霸佔執行緒
+    private static final int BATCH_SIZE = 64;
+    // 同時持有大量棋盤，悔棋堆疊由小容量開始成長
+    private static final int UNDO_CAPACITY = 64;
+    private static final int SNAPSHOT_BYTES = PositionCodec.BYTES + 1 + Integer.BYTES;
+    // 走法去掉 PieceCode 後只剩起點與終點 14 bit
+    private static final int SQUARES_MASK = (1 << 14) - 1;
+
+    private final Executor executor;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // 棋盤仍在記憶體中的對局數（整個 GameRegistry 共用）
+    private final AtomicInteger residentGames;
+
+    private volatile long lastAccessNanos;
+
+    // 以下欄位只由 actor 存取
+    private ChineseChessService board;
+    private byte[] snapshot;
+
+    GameSession(ChineseChessService board, Executor executor, AtomicInteger residentGames) {
+        this.board = board;
+        this.executor = executor;
+        this.residentGames = residentGames;
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    static ChineseChessService newBoard() {
+        return new ChineseChessService(UNDO_CAPACITY);
+    }
+
+    long lastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    /**
+     * 走一步；對局已結束、不是走棋方的棋子或走法不合法時回傳 false
+     */
+    CompletableFuture<Boolean> move(int move) {
+        return submit(position -> position.playTurn(move));
+    }
+
+    /**
+     * 在 actor 上對棋盤執行任意操作；收起的棋盤會先還原
+     */
+    <T> CompletableFuture<T> submit(Function<ChineseChessService, T> task) {
+        lastAccessNanos = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(() -> {
+            try {
+                ChineseChessService position = resident();
+                result.complete(task.apply(position));
+            } catch (Throwable e) {
+                // 連 Error 也交給呼叫端，future 不會永遠等不到結果
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 若在 actor 執行時仍閒置超過 idleNanos，將棋盤收起；回傳是否確實收起
+     */
+    CompletableFuture<Boolean> evictIfIdle(long idleNanos) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        enqueue(() -> {
+            try {
+                boolean evict = board != null && System.nanoTime() - lastAccessNanos >= idleNanos;
+                if (evict) {
+                    snapshot = compact(board);
+                    board = null;
+                    residentGames.decrementAndGet();
+                }
+                result.complete(evict);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 對局已從 GameRegistry 移除：處理完先前提交的工作後釋放棋盤
+     */
+    void discard() {
+        enqueue(() -> {
+            if (board != null) {
+                board = null;
+                residentGames.decrementAndGet();
+            }
+            snapshot = null;
+        });
+    }
+
+    /**
+     * 退回最後一次吃子時的局面並記下之後的走法；棋盤隨後即被丟棄
+     * 先配置好所有空間再悔棋，配置失敗時棋盤保持原狀
+     */
+    private static byte[] compact(ChineseChessService position) {
+        int resultCode = position.resultCode();
+        int[] moves = new int[position.reversiblePly()];
+        ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_BYTES + moves.length * Short.BYTES);
+        for (int i = moves.length - 1; i >= 0; i--) {
+            moves[i] = position.lastMove();
+            position.unmakeMove();
+        }
+        PositionCodec.encode(position, buffer);
+        buffer.put((byte) resultCode).putInt(moves.length);
+        for (int move : moves) {
+            buffer.putShort((short) (move & SQUARES_MASK));
+        }
+        return buffer.array();
+    }
+
+    private ChineseChessService resident() {
+        if (board == null) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            board = newBoard();
+            PositionCodec.decode(buffer, board);
+            int resultCode = buffer.get();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                int move = buffer.getShort() & SQUARES_MASK;
+                int from = Move.from(move);
+                board.makeMove(Move.of(from, Move.to(move), board.pieceCodeAt(from)));
+            }
+            board.restoreResult(resultCode);
+            snapshot = null;
+            residentGames.incrementAndGet();
+        }
+        return board;
+    }
+
+    private void enqueue(Runnable task) {
+        mailbox.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = mailbox.poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+        } finally {
+            // 工作丟出例外時也要釋放排程權，否則此對局不會再處理任何工作
+            scheduled.set(false);
+            // 釋放排程權後再檢查一次，避免遺漏剛放進信箱的工作
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.chess;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 不可變的對局快照：棋盤、走棋方、勝負與局面雜湊
+ * 棋盤以兩個半邊保存（第 1-5 行與第 6-10 行），每格 4 bit（PieceCode），每個半邊 45 格打包成 3 個 long
+ * 走一步只改到起點與終點：after 只複製被改到的半邊，另一半與前一個快照共用
+ * 因此每步快照為 O(改變的格子數) 的時間與記憶體（最多 2 × 24 bytes），半邊陣列建立後永不修改
+ */
+public final class GameState {
+
+    private static final int HALF_SQUARES = Square.COUNT / 2;
+    private static final int SQUARES_PER_WORD = Long.SIZE / 4;
+    private static final int WORDS_PER_HALF = (HALF_SQUARES + SQUARES_PER_WORD - 1) / SQUARES_PER_WORD;
+    private static final long NIBBLE_MASK = 0xFL;
+    // 以 ChineseChessService.resultCode 為索引：尚未結束、和棋、紅勝、黑勝
+    private static final Color[] WINNERS = {null, null, Color.RED, Color.BLACK};
+
+    // 紅方半邊（Square 0..44）與黑方半邊（Square 45..89）
+    private final long[] redHalf;
+    private final long[] blackHalf;
+    private final Color sideToMove;
+    // ChineseChessService.resultCode 的值，0 表示尚未結束
+    private final int result;
+    private final long hash;
+
+    private GameState(long[] redHalf, long[] blackHalf, ChineseChessService position) {
+        this.redHalf = redHalf;
+        this.blackHalf = blackHalf;
+        this.sideToMove = position.sideToMove();
+        this.result = position.resultCode();
+        this.hash = position.positionHash();
+    }
+
+    /**
+     * 完整擷取棋盤目前的狀態（掃描 90 格）
+     */
+    public static GameState of(ChineseChessService position) {
+        Objects.requireNonNull(position, "Position cannot be null");
+        long[] redHalf = new long[WORDS_PER_HALF];
+        long[] blackHalf = new long[WORDS_PER_HALF];
+        for (int square = 0; square < Square.COUNT; square++) {
+            int code = position.pieceCodeAt(square);
+            if (code != PieceCode.EMPTY) {
+                long[] half = square < HALF_SQUARES ? redHalf : blackHalf;
+                int index = square % HALF_SQUARES;
+                half[index / SQUARES_PER_WORD] |= (long) code << shift(index);
+            }
+        }
+        return new GameState(redHalf, blackHalf, position);
+    }
+
+    /**
+     * 由此快照與走完 move 之後的棋盤建立下一個快照
+     * 只讀取 move 的起點與終點，其餘格子與此快照共用；position 必須正是此狀態走完 move 的棋盤
+     */
+    public GameState after(int move, ChineseChessService position) {
+        Objects.requireNonNull(position, "Position cannot be null");
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (from >= Square.COUNT || to >= Square.COUNT) {
+            throw new IllegalArgumentException("Invalid move: " + move);
+        }
+        long[] nextRed = withSquare(redHalf, withSquare(redHalf, redHalf, 0, from, position), 0, to, position);
+        long[] nextBlack = withSquare(blackHalf,
+                withSquare(blackHalf, blackHalf, HALF_SQUARES, from, position), HALF_SQUARES, to, position);
+        return new GameState(nextRed, nextBlack, position);
+    }
+
+    /**
+     * 依快照建立新的可走子棋盤（不含悔棋與重複局面紀錄）
+     */
+    public ChineseChessService toBoard() {
+        ChineseChessService position = new ChineseChessService();
+        for (int square = 0; square < Square.COUNT; square++) {
+            int code = pieceCodeAt(square);
+            if (code != PieceCode.EMPTY) {
+                position.putPiece(square, code);
+            }
+        }
+        position.setSideToMove(sideToMove);
+        position.restoreResult(result);
+        return position;
+    }
+
+    public int pieceCodeAt(int square) {
+        long[] half = square < HALF_SQUARES ? redHalf : blackHalf;
+        int index = square % HALF_SQUARES;
+        return (int) ((half[index / SQUARES_PER_WORD] >>> shift(index)) & NIBBLE_MASK);
+    }
+
+    /**
+     * 取得指定位置的棋子，空格回傳 null
+     */
+    public Piece getPiece(int row, int col) {
+        return Piece.fromCode(pieceCodeAt(Square.of(row, col)));
+    }
+
+    public Color sideToMove() {
+        return sideToMove;
+    }
+
+    public boolean isGameOver() {
+        return result != 0;
+    }
+
+    public String getWinner() {
+        Color winner = WINNERS[result];
+        return winner != null ? winner.getDisplayName() : null;
+    }
+
+    public long positionHash() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof GameState state)) {
+            return false;
+        }
+        return hash == state.hash
+                && sideToMove == state.sideToMove
+                && result == state.result
+                && (redHalf == state.redHalf || Arrays.equals(redHalf, state.redHalf))
+                && (blackHalf == state.blackHalf || Arrays.equals(blackHalf, state.blackHalf));
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    /**
+     * 把 position 上 square 的棋子寫入半邊 half（起點為 offset）；第一次改動時才複製 original，未改動則原樣回傳
+     */
+    private static long[] withSquare(long[] original, long[] half, int offset, int square,
+                                     ChineseChessService position) {
+        int index = square - offset;
+        if (index < 0 || index >= HALF_SQUARES) {
+            return half;
+        }
+        int word = index / SQUARES_PER_WORD;
+        int shift = shift(index);
+        long code = position.pieceCodeAt(square);
+        if (((half[word] >>> shift) & NIBBLE_MASK) == code) {
+            return half;
+        }
+        long[] updated = half == original ? original.clone() : half;
+        updated[word] = (updated[word] & ~(NIBBLE_MASK << shift)) | (code << shift);
+        return updated;
+    }
+
+    private static int shift(int index) {
+        return (index % SQUARES_PER_WORD) * 4;
+    }
+}
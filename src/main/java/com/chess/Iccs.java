@@ -0,0 +1,63 @@
+package com.chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ICCS 座標走法：四個字元 "起點列起點行終點列終點行"，例如 h2e2（紅方炮二平五）
+ * 列 a..i 對應第 1..9 列，行 0..9 對應第 1..10 行（紅方底線為 0）
+ * 解析結果為只含起點與終點的 Move，PieceCode 由棋盤決定
+ */
+public final class Iccs {
+
+    public static final int LENGTH = 4;
+    public static final int INVALID = -1;
+
+    private Iccs() {
+        // Utility class - prevent instantiation
+    }
+
+    public static int parse(CharSequence text) {
+        if (text == null || text.length() != LENGTH) {
+            return INVALID;
+        }
+        return decode(text.charAt(0), text.charAt(1), text.charAt(2), text.charAt(3));
+    }
+
+    /**
+     * 直接從 buffer 的絕對位置 offset 讀取四個 ASCII 字元，不移動 buffer 的 position
+     */
+    public static int decode(ByteBuffer buffer, int offset) {
+        return decode(buffer.get(offset), buffer.get(offset + 1), buffer.get(offset + 2), buffer.get(offset + 3));
+    }
+
+    /**
+     * 大小寫皆可；格式不符時回傳 INVALID
+     */
+    public static int decode(int fromFile, int fromRank, int toFile, int toRank) {
+        int from = square(fromFile, fromRank);
+        int to = square(toFile, toRank);
+        return from < 0 || to < 0 ? INVALID : Move.of(from, to);
+    }
+
+    public static String format(int move) {
+        return append(new StringBuilder(LENGTH), move).toString();
+    }
+
+    public static StringBuilder append(StringBuilder builder, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        return builder.append((char) ('a' + Square.col(from) - 1))
+                .append((char) ('0' + Square.row(from) - 1))
+                .append((char) ('a' + Square.col(to) - 1))
+                .append((char) ('0' + Square.row(to) - 1));
+    }
+
+    private static int square(int file, int rank) {
+        int col = (file | 0x20) - 'a' + 1;
+        int row = rank - '0' + 1;
+        if (col < 1 || col > ChessConstants.BOARD_COLS || row < 1 || row > ChessConstants.BOARD_ROWS) {
+            return -1;
+        }
+        return Square.of(row, col);
+    }
+}
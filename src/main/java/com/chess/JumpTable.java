@@ -0,0 +1,96 @@
+package com.chess;
+
+import java.util.Arrays;
+
+/**
+ * 跳躍類棋子（馬、象、士、將、兵）的預先計算走法表
+ * 每個起點列出可到達的終點與對應的阻擋格（馬腳、象眼），-1 表示沒有阻擋格
+ * 另以 (from, to) 索引的查表提供 O(1) 驗證
+ */
+public final class JumpTable {
+
+    public static final int NOT_REACHABLE = -2;
+    public static final int NO_BLOCKER = -1;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int[][] targets;
+    private final int[][] blockers;
+    // index = from * 90 + to；0 表示不可到達，否則為 blocker + 2
+    private final byte[] blockerByPair;
+
+    JumpTable(int[][] targets, int[][] blockers) {
+        this.targets = targets;
+        this.blockers = blockers;
+        this.blockerByPair = new byte[Square.COUNT * Square.COUNT];
+        for (int from = 0; from < Square.COUNT; from++) {
+            for (int i = 0; i < targets[from].length; i++) {
+                blockerByPair[from * Square.COUNT + targets[from][i]] = (byte) (blockers[from][i] + 2);
+            }
+        }
+    }
+
+    /**
+     * 起點可到達的終點（呼叫端不可修改回傳的陣列）
+     */
+    public int[] targets(int from) {
+        return targets[from];
+    }
+
+    /**
+     * 與 targets(from) 平行排列的阻擋格
+     */
+    public int[] blockers(int from) {
+        return blockers[from];
+    }
+
+    /**
+     * 回傳 from 到 to 的阻擋格；NO_BLOCKER 表示無阻擋格，NOT_REACHABLE 表示無法一步到達
+     */
+    public int blockerOf(int from, int to) {
+        return blockerByPair[from * Square.COUNT + to] - 2;
+    }
+
+    /**
+     * 以候選位移建表，位移依 (rowStep, colStep, blockerRowStep, blockerColStep) 四個一組排列
+     * 阻擋位移為 (0, 0) 表示該走法沒有阻擋格
+     */
+    static JumpTable build(int[] steps, TargetFilter filter) {
+        int[][] targets = new int[Square.COUNT][];
+        int[][] blockers = new int[Square.COUNT][];
+        int[] targetBuffer = new int[steps.length / 4];
+        int[] blockerBuffer = new int[steps.length / 4];
+
+        for (int from = 0; from < Square.COUNT; from++) {
+            int row = Square.row(from);
+            int col = Square.col(from);
+            int count = 0;
+            for (int i = 0; i < steps.length; i += 4) {
+                int toRow = row + steps[i];
+                int toCol = col + steps[i + 1];
+                if (!isOnBoard(toRow, toCol) || !filter.accepts(row, toRow, toCol)) {
+                    continue;
+                }
+                boolean hasBlocker = steps[i + 2] != 0 || steps[i + 3] != 0;
+                targetBuffer[count] = Square.of(toRow, toCol);
+                blockerBuffer[count] = hasBlocker ? Square.of(row + steps[i + 2], col + steps[i + 3]) : NO_BLOCKER;
+                count++;
+            }
+            targets[from] = count == 0 ? EMPTY : Arrays.copyOf(targetBuffer, count);
+            blockers[from] = count == 0 ? EMPTY : Arrays.copyOf(blockerBuffer, count);
+        }
+        return new JumpTable(targets, blockers);
+    }
+
+    private static boolean isOnBoard(int row, int col) {
+        return row >= 1 && row <= ChessConstants.BOARD_ROWS && col >= 1 && col <= ChessConstants.BOARD_COLS;
+    }
+
+    /**
+     * 建表時的終點條件（宮、河界、兵的前進方向等）
+     */
+    @FunctionalInterface
+    interface TargetFilter {
+        boolean accepts(int fromRow, int toRow, int toCol);
+    }
+}
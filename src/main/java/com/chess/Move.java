@@ -0,0 +1,40 @@
+package com.chess;
+
+/**
+ * 以單一 int 表示的走法編碼，避免在熱路徑上配置物件
+ * bit 0-6：起點 Square，bit 7-13：終點 Square，bit 14-17：移動的 PieceCode（0 表示不指定）
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    private static final int SQUARE_BITS = 7;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int TO_SHIFT = SQUARE_BITS;
+    private static final int PIECE_SHIFT = SQUARE_BITS * 2;
+    private static final int PIECE_MASK = 0xF;
+
+    private Move() {
+        // Utility class - prevent instantiation
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << TO_SHIFT);
+    }
+
+    public static int of(int from, int to, int pieceCode) {
+        return from | (to << TO_SHIFT) | (pieceCode << PIECE_SHIFT);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int piece(int move) {
+        return (move >>> PIECE_SHIFT) & PIECE_MASK;
+    }
+}
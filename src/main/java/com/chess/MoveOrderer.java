@@ -0,0 +1,109 @@
+package com.chess;
+
+import java.util.Arrays;
+
+import static com.chess.ChessConstants.*;
+
+/**
+ * 走法排序：依分數由高到低逐一取出走法，讓 alpha-beta 儘早剪枝
+ * 1. 置換表走法
+ * 2. 吃子：MVV-LVA，被吃棋子價值高者優先，同價值時以價值低的棋子吃優先（價值取自 PieceType）
+ * 3. 殺手走法：每層兩格，記錄最近造成剪枝的不吃子走法
+ * 4. 其餘不吃子走法依歷史分數 [PieceCode][到達格] 排序
+ * 分數寫入與走法平行的 int 陣列，next 以選擇排序就地取出下一個最佳走法，不配置物件
+ * 每個 SearchEngine 持有自己的實例，不可同時被多個執行緒使用
+ */
+public final class MoveOrderer {
+
+    public static final int HASH_MOVE_SCORE = 1 << 30;
+    public static final int CAPTURE_SCORE = 1 << 28;
+    public static final int KILLER_SCORE = 1 << 27;
+
+    // 被吃棋子價值的倍數，大於任何攻擊方價值，確保被吃棋子優先
+    private static final int VICTIM_WEIGHT = 8192;
+    // 歷史分數超過上限時全部減半，維持在殺手分數之下
+    private static final int HISTORY_LIMIT = 1 << 26;
+    private static final int KILLER_SLOTS = 2;
+
+    private final int[][] killers = new int[MAX_SEARCH_PLY][KILLER_SLOTS];
+    private final int[] history = new int[PieceCode.COUNT * Square.COUNT];
+
+    /**
+     * 新對局或新的搜尋開始時清除殺手與歷史分數
+     */
+    public void clear() {
+        for (int[] slots : killers) {
+            Arrays.fill(slots, Move.NONE);
+        }
+        Arrays.fill(history, 0);
+    }
+
+    /**
+     * 為 moves 的前 count 個走法計分，寫入 scores 的相同位置
+     */
+    public void score(ChineseChessService position, int[] moves, int[] scores, int count, int hashMove, int ply) {
+        int[] plyKillers = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int victim = position.pieceCodeAt(Move.to(move));
+            if (move == hashMove) {
+                scores[i] = HASH_MOVE_SCORE;
+            } else if (victim != PieceCode.EMPTY) {
+                scores[i] = CAPTURE_SCORE + mvvLva(victim, Move.piece(move));
+            } else if (move == plyKillers[0]) {
+                scores[i] = KILLER_SCORE;
+            } else if (move == plyKillers[1]) {
+                scores[i] = KILLER_SCORE - 1;
+            } else {
+                scores[i] = history[historyIndex(move)];
+            }
+        }
+    }
+
+    /**
+     * 選擇排序的一步：把 index..count-1 中分數最高的走法換到 index 並回傳
+     */
+    public static int next(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = moves[best];
+            moves[best] = moves[index];
+            moves[index] = move;
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return moves[index];
+    }
+
+    /**
+     * 不吃子走法造成剪枝：記為殺手並加歷史分數（depth²）
+     */
+    public void recordCutoff(int move, int depth, int ply) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int index = historyIndex(move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    private static int mvvLva(int victim, int attacker) {
+        return PieceCode.type(victim).getValue() * VICTIM_WEIGHT - PieceCode.type(attacker).getValue();
+    }
+
+    private static int historyIndex(int move) {
+        return Move.piece(move) * Square.COUNT + Move.to(move);
+    }
+}
@@ -0,0 +1,99 @@
+package com.chess;
+
+import static com.chess.ChessConstants.*;
+
+/**
+ * 類別載入時產生的跳躍類棋子走法表
+ * 與顏色相關的表（象、士、將、兵）以 Color.ordinal() 為索引
+ */
+public final class MoveTables {
+
+    // (rowStep, colStep, blockerRowStep, blockerColStep)
+    private static final int[] HORSE_STEPS = {
+            2, 1, 1, 0,    2, -1, 1, 0,
+            -2, 1, -1, 0,  -2, -1, -1, 0,
+            1, 2, 0, 1,    -1, 2, 0, 1,
+            1, -2, 0, -1,  -1, -2, 0, -1
+    };
+    // 反向的馬走法表：由目標格出發找出能攻擊它的馬，阻擋格為靠近馬一側的馬腳
+    private static final int[] HORSE_ATTACKER_STEPS = {
+            2, 1, 1, 1,    2, -1, 1, -1,
+            -2, 1, -1, 1,  -2, -1, -1, -1,
+            1, 2, 1, 1,    -1, 2, -1, 1,
+            1, -2, 1, -1,  -1, -2, -1, -1
+    };
+    private static final int[] ELEPHANT_STEPS = {
+            2, 2, 1, 1,  2, -2, 1, -1,  -2, 2, -1, 1,  -2, -2, -1, -1
+    };
+    private static final int[] GUARD_STEPS = {
+            1, 1, 0, 0,  1, -1, 0, 0,  -1, 1, 0, 0,  -1, -1, 0, 0
+    };
+    private static final int[] ORTHOGONAL_STEPS = {
+            1, 0, 0, 0,  -1, 0, 0, 0,  0, 1, 0, 0,  0, -1, 0, 0
+    };
+
+    public static final JumpTable HORSE = JumpTable.build(HORSE_STEPS, (fromRow, toRow, toCol) -> true);
+    public static final JumpTable HORSE_ATTACKERS = JumpTable.build(HORSE_ATTACKER_STEPS,
+            (fromRow, toRow, toCol) -> true);
+    public static final JumpTable[] ELEPHANT = new JumpTable[2];
+    public static final JumpTable[] GUARD = new JumpTable[2];
+    public static final JumpTable[] GENERAL = new JumpTable[2];
+    public static final JumpTable[] SOLDIER = new JumpTable[2];
+    // 反向的兵走法表：targets(square) 為該顏色的兵一步可到達 square 的起點
+    public static final JumpTable[] SOLDIER_ATTACKERS = new JumpTable[2];
+
+    static {
+        for (Color color : Color.values()) {
+            int index = color.ordinal();
+            ELEPHANT[index] = JumpTable.build(ELEPHANT_STEPS,
+                    (fromRow, toRow, toCol) -> isOwnSide(color, toRow));
+            GUARD[index] = JumpTable.build(GUARD_STEPS,
+                    (fromRow, toRow, toCol) -> isInPalace(color, toRow, toCol));
+            GENERAL[index] = JumpTable.build(ORTHOGONAL_STEPS,
+                    (fromRow, toRow, toCol) -> isInPalace(color, toRow, toCol));
+            SOLDIER[index] = JumpTable.build(ORTHOGONAL_STEPS,
+                    (fromRow, toRow, toCol) -> isSoldierStep(color, fromRow, toRow));
+            SOLDIER_ATTACKERS[index] = JumpTable.build(ORTHOGONAL_STEPS,
+                    (fromRow, toRow, toCol) -> isSoldierStep(color, toRow, fromRow));
+        }
+    }
+
+    private MoveTables() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * 檢查位置是否在宮內
+     * 紅方宮：行 1-3，列 4-6
+     * 黑方宮：行 8-10，列 4-6
+     */
+    static boolean isInPalace(Color color, int row, int col) {
+        if (col < PALACE_MIN_COL || col > PALACE_MAX_COL) {
+            return false;
+        }
+        if (Color.RED == color) {
+            return row >= RED_PALACE_MIN_ROW && row <= RED_PALACE_MAX_ROW;
+        }
+        return row >= BLACK_PALACE_MIN_ROW && row <= BLACK_PALACE_MAX_ROW;
+    }
+
+    /**
+     * 象不可過河：紅方 1-5 行，黑方 6-10 行
+     */
+    private static boolean isOwnSide(Color color, int row) {
+        return Color.RED == color ? row <= RIVER_BOUNDARY : row > RIVER_BOUNDARY;
+    }
+
+    /**
+     * 兵只能前進；過河後才可橫走
+     */
+    private static boolean isSoldierStep(Color color, int fromRow, int toRow) {
+        int forward = Color.RED == color ? GENERAL_MOVE_DISTANCE : -GENERAL_MOVE_DISTANCE;
+        int rowDiff = toRow - fromRow;
+        if (rowDiff == forward) {
+            return true;
+        }
+        boolean crossedRiver = Color.RED == color ? fromRow > RIVER_BOUNDARY : fromRow <= RIVER_BOUNDARY;
+        return rowDiff == 0 && crossedRiver;
+    }
+}
@@ -0,0 +1,140 @@
+package com.chess;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 以記憶體映射讀取的開局庫
+ * 檔案格式：16 bytes 標頭（magic、version、項目數），其後為依 (雜湊, 走法) 排序的固定長度項目
+ * 每個項目 16 bytes：局面雜湊（long）、走法（int，含 PieceCode）、權重（int）
+ * 開檔時只建立映射，不把項目載入 heap；查詢以二分搜尋直接讀取映射區，並只使用絕對位置讀取，
+ * 因此多個執行緒可同時查詢同一個實例
+ */
+public final class OpeningBook {
+
+    static final int MAGIC = 0x58514243;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 16;
+
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 12;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    public static OpeningBook open(Path book) throws IOException {
+        try (FileChannel channel = FileChannel.open(book, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid opening book size: " + fileSize);
+            }
+            // 映射在通道關閉後仍然有效
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalArgumentException("Not an opening book: " + book);
+            }
+            long entries = buffer.getLong(8);
+            if (HEADER_BYTES + entries * ENTRY_BYTES != fileSize) {
+                throw new IllegalArgumentException("Corrupt opening book, expected " + entries + " entries: " + book);
+            }
+            return new OpeningBook(buffer, (int) entries);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 第一個雜湊等於 hash 的項目索引，沒有則回傳 -1
+     */
+    public int find(long hash) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (hash(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < size && hash(low) == hash ? low : -1;
+    }
+
+    public long hash(int index) {
+        return buffer.getLong(offset(index));
+    }
+
+    public int move(int index) {
+        return buffer.getInt(offset(index) + MOVE_OFFSET);
+    }
+
+    public int weight(int index) {
+        return buffer.getInt(offset(index) + WEIGHT_OFFSET);
+    }
+
+    /**
+     * 將局面的所有開局庫走法與權重寫入呼叫端的緩衝區（長度至少 MAX_MOVES），回傳數量
+     */
+    public int moves(long hash, int[] moves, int[] weights) {
+        int count = 0;
+        for (int i = find(hash); i >= 0 && i < size && hash(i) == hash && count < moves.length; i++) {
+            moves[count] = move(i);
+            weights[count] = weight(i);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 權重最高的走法，不在開局庫中時回傳 Move.NONE
+     */
+    public int bestMove(long hash) {
+        int best = Move.NONE;
+        int bestWeight = 0;
+        for (int i = find(hash); i >= 0 && i < size && hash(i) == hash; i++) {
+            if (weight(i) > bestWeight) {
+                best = move(i);
+                bestWeight = weight(i);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 依權重比例選擇走法；random 為呼叫端提供的非負亂數，不在開局庫中時回傳 Move.NONE
+     */
+    public int weightedMove(long hash, long random) {
+        int first = find(hash);
+        if (first < 0) {
+            return Move.NONE;
+        }
+        long total = 0;
+        int end = first;
+        for (; end < size && hash(end) == hash; end++) {
+            total += weight(end);
+        }
+        long pick = Math.floorMod(random, total);
+        for (int i = first; i < end; i++) {
+            pick -= weight(i);
+            if (pick < 0) {
+                return move(i);
+            }
+        }
+        return move(end - 1);
+    }
+
+    private static int offset(int index) {
+        return HEADER_BYTES + index * ENTRY_BYTES;
+    }
+}
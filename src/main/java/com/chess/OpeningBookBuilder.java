@@ -0,0 +1,180 @@
+package com.chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 由棋譜建立開局庫檔案
+ * 每盤棋取前 maxPly 步，記錄 (走之前的局面雜湊, 走法)，相同組合出現的次數即為權重
+ * 收集的資料以平行的基本型別陣列存放，寫檔前依 (雜湊, 走法) 排序並合併重複項
+ * 檔案格式見 OpeningBook
+ */
+public final class OpeningBookBuilder {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int WRITE_BUFFER_ENTRIES = 4096;
+
+    private final int maxPly;
+    private final ChineseChessService position = new ChineseChessService();
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public OpeningBookBuilder(int maxPly) {
+        if (maxPly < 1) {
+            throw new IllegalArgumentException("Max ply must be positive, got: " + maxPly);
+        }
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * 加入一盤以 ICCS 走法記錄的棋（格式同 GameReplay 的一行），遇到非法走法即停止；回傳收錄的步數
+     */
+    public int addGame(String line) {
+        position.setupInitialPosition();
+        int ply = 0;
+        for (String token : line.trim().split("\\s+")) {
+            if (ply == maxPly || token.isEmpty()) {
+                break;
+            }
+            int move = Iccs.parse(token);
+            if (move == Iccs.INVALID || !PieceCode.isColor(position.pieceCodeAt(Move.from(move)), position.sideToMove())) {
+                break;
+            }
+            long hash = position.positionHash();
+            if (!position.move(move)) {
+                break;
+            }
+            add(hash, Move.of(Move.from(move), Move.to(move), position.pieceCodeAt(Move.to(move))));
+            ply++;
+        }
+        return ply;
+    }
+
+    /**
+     * 逐行讀取棋譜檔並加入每一盤棋；回傳盤數
+     */
+    public long addArchive(Path archive) throws IOException {
+        long games = 0;
+        try (BufferedReader reader = Files.newBufferedReader(archive, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    addGame(line);
+                    games++;
+                }
+            }
+        }
+        return games;
+    }
+
+    /**
+     * 排序、合併後寫出開局庫檔案；回傳寫入的項目數
+     */
+    public long write(Path book) throws IOException {
+        sort(0, size - 1);
+        try (FileChannel channel = FileChannel.open(book, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_ENTRIES * OpeningBook.ENTRY_BYTES);
+            buffer.position(OpeningBook.HEADER_BYTES);
+
+            long entries = 0;
+            int i = 0;
+            while (i < size) {
+                long hash = hashes[i];
+                int move = moves[i];
+                int weight = 0;
+                while (i < size && hashes[i] == hash && moves[i] == move) {
+                    weight = weight == Integer.MAX_VALUE ? weight : weight + 1;
+                    i++;
+                }
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(hash).putInt(move).putInt(weight);
+                entries++;
+            }
+            flush(channel, buffer);
+
+            buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(entries).flip();
+            channel.write(buffer, 0);
+            return entries;
+        }
+    }
+
+    private void add(long hash, int move) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        hashes[size] = hash;
+        moves[size] = move;
+        size++;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 以 (雜湊, 走法) 排序平行陣列的快速排序；小區間改用插入排序，只遞迴較小的一半
+     */
+    private void sort(int low, int high) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            int middle = (low + high) >>> 1;
+            long pivotHash = hashes[middle];
+            int pivotMove = moves[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(hashes[i], moves[i], pivotHash, pivotMove) < 0) {
+                    i++;
+                }
+                while (compare(hashes[j], moves[j], pivotHash, pivotMove) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(hashes[j], moves[j], hashes[j - 1], moves[j - 1]) < 0; j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    private static int compare(long hash, int move, long otherHash, int otherMove) {
+        int byHash = Long.compare(hash, otherHash);
+        return byHash != 0 ? byHash : Integer.compare(move, otherMove);
+    }
+
+    private void swap(int a, int b) {
+        long hash = hashes[a];
+        hashes[a] = hashes[b];
+        hashes[b] = hash;
+        int move = moves[a];
+        moves[a] = moves[b];
+        moves[b] = move;
+    }
+}
@@ -0,0 +1,112 @@
+package com.chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lazy SMP 平行搜尋
+ * 所有 worker 搜尋同一個根局面、共用同一個無鎖置換表，彼此以置換表交換結果
+ * 每個 worker 擁有自己的棋盤副本與悔棋堆疊；helper 以錯開的深度搜尋
+ * 回傳主執行緒（worker 0）的結果，節點數為所有 worker 的總和
+ * helper 執行緒在建構時建立並於 close 時結束，可重複用於多次搜尋
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable transpositionTable;
+    private final SearchEngine[] engines;
+    private final ExecutorService helperPool;
+
+    public ParallelSearch(TranspositionTable transpositionTable, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got: " + threads);
+        }
+        this.transpositionTable = transpositionTable;
+        this.engines = new SearchEngine[threads];
+        for (int i = 0; i < threads; i++) {
+            engines[i] = new SearchEngine(transpositionTable);
+        }
+        this.helperPool = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int threads() {
+        return engines.length;
+    }
+
+    /**
+     * 所有 worker 共用同一組殘局庫；null 表示不使用
+     */
+    public void setTablebases(Tablebases tablebases) {
+        for (SearchEngine engine : engines) {
+            engine.setTablebases(tablebases);
+        }
+    }
+
+    /**
+     * 以所有 worker 搜尋目前走棋方的最佳走法；傳入的棋盤不會被修改
+     */
+    public SearchResult search(ChineseChessService position, SearchLimits limits) {
+        transpositionTable.newSearch();
+        for (SearchEngine engine : engines) {
+            engine.resetStop();
+        }
+
+        List<Future<SearchResult>> helpers = new ArrayList<>(engines.length - 1);
+        for (int i = 1; i < engines.length; i++) {
+            SearchEngine engine = engines[i];
+            ChineseChessService board = position.copy();
+            int threadIndex = i;
+            helpers.add(helperPool.submit(() -> engine.run(board, limits, threadIndex)));
+        }
+
+        SearchResult main;
+        try {
+            main = engines[0].run(position.copy(), limits, 0);
+        } finally {
+            for (int i = 1; i < engines.length; i++) {
+                engines[i].stop();
+            }
+        }
+
+        long totalNodes = main.nodes();
+        for (Future<SearchResult> helper : helpers) {
+            totalNodes += await(helper).nodes();
+        }
+        return new SearchResult(main.bestMove(), main.score(), main.depth(), main.principalVariation(),
+                totalNodes, main.elapsedMillis());
+    }
+
+    /**
+     * 要求所有 worker 盡快停止（可由其他執行緒呼叫）
+     */
+    public void stop() {
+        for (SearchEngine engine : engines) {
+            engine.stop();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+        }
+    }
+
+    private static SearchResult await(Future<SearchResult> helper) {
+        try {
+            return helper.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for search helpers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.chess;
+
+import static com.chess.ChessConstants.MAX_MOVES;
+
+/**
+ * Perft：以 generateLegalMoves + makeMove/unmakeMove 走遍整棵走法樹並計算葉節點數
+ * 與已知的節點數比對即可驗證走法產生器，也可作為走法產生與悔棋的效能指標
+ */
+public final class Perft {
+
+    private Perft() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * 從目前局面、目前走棋方開始，計算深度 depth 的葉節點數；回傳前棋盤會還原
+     */
+    public static long perft(ChineseChessService position, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth must not be negative, got: " + depth);
+        }
+        return perft(position, depth, new int[Math.max(depth, 1)][MAX_MOVES]);
+    }
+
+    private static long perft(ChineseChessService position, int depth, int[][] moveBuffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = moveBuffers[depth - 1];
+        int count = position.generateLegalMoves(position.sideToMove(), moves);
+        if (depth == 1) {
+            return count;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            nodes += perft(position, depth - 1, moveBuffers);
+            position.unmakeMove();
+        }
+        return nodes;
+    }
+}
@@ -2,8 +2,30 @@ package com.chess;
 
 public record Piece(Color color, PieceType type) {
     
+    // 14 種棋子的共用實例，以 PieceCode 為索引
+    private static final Piece[] PIECES = new Piece[PieceCode.COUNT];
+    
+    static {
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[PieceCode.of(color, type)] = new Piece(color, type);
+            }
+        }
+    }
+    
     public static Piece of(Color color, PieceType type) {
-        return new Piece(color, type);
+        return PIECES[PieceCode.of(color, type)];
+    }
+    
+    /**
+     * 由 PieceCode 取得棋子，空格回傳 null
+     */
+    public static Piece fromCode(int code) {
+        return PIECES[code];
+    }
+    
+    public int code() {
+        return PieceCode.of(color, type);
     }
     
     public String toDisplayString() {
@@ -18,7 +40,7 @@ public record Piece(Color color, PieceType type) {
         
         Color color = Color.fromString(parts[0]);
         PieceType type = PieceType.fromString(parts[1]);
-        return new Piece(color, type);
+        return of(color, type);
     }
     
     public boolean isOpponentOf(Piece other) {
@@ -28,4 +50,4 @@ public record Piece(Color color, PieceType type) {
     public boolean isSameColorAs(Piece other) {
         return this.color == other.color;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.chess;
+
+/**
+ * 棋子編碼工具
+ * 0 表示空格，紅方棋子為 1..7，黑方棋子為 8..14
+ */
+public final class PieceCode {
+
+    public static final int EMPTY = 0;
+    public static final int COUNT = 15;
+
+    private static final Color[] COLORS = Color.values();
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final int TYPE_COUNT = TYPES.length;
+
+    private PieceCode() {
+        // Utility class - prevent instantiation
+    }
+
+    public static int of(Color color, PieceType type) {
+        return color.ordinal() * TYPE_COUNT + type.ordinal() + 1;
+    }
+
+    public static Color color(int code) {
+        return COLORS[(code - 1) / TYPE_COUNT];
+    }
+
+    public static PieceType type(int code) {
+        return TYPES[(code - 1) % TYPE_COUNT];
+    }
+
+    public static boolean isColor(int code, Color color) {
+        return code != EMPTY && (code - 1) / TYPE_COUNT == color.ordinal();
+    }
+}
@@ -1,30 +1,51 @@
 package com.chess;
 
 public enum PieceType {
-    GENERAL("General"),
-    GUARD("Guard"),
-    ROOK("Rook"),
-    HORSE("Horse"),
-    CANNON("Cannon"),
-    SOLDIER("Soldier"),
-    ELEPHANT("Elephant");
+    GENERAL("General", 6000, 1),
+    GUARD("Guard", 120, 2),
+    ROOK("Rook", 600, 2),
+    HORSE("Horse", 270, 2),
+    CANNON("Cannon", 285, 2),
+    SOLDIER("Soldier", 30, 5),
+    ELEPHANT("Elephant", 120, 2);
     
     private final String displayName;
+    // 子力價值（以兵為 30 的相對分數），將的價值僅用於吃子排序
+    private final int value;
+    // 每方最多的數量（標準開局的數量）
+    private final int maxCount;
     
-    PieceType(String displayName) {
+    PieceType(String displayName, int value, int maxCount) {
         this.displayName = displayName;
+        this.value = value;
+        this.maxCount = maxCount;
     }
     
     public String getDisplayName() {
         return displayName;
     }
     
+    public int getValue() {
+        return value;
+    }
+    
+    public int getMaxCount() {
+        return maxCount;
+    }
+    
     public static PieceType fromString(String pieceTypeStr) {
-        for (PieceType pieceType : PieceType.values()) {
-            if (pieceType.displayName.equals(pieceTypeStr)) {
-                return pieceType;
-            }
+        if (pieceTypeStr == null) {
+            throw new IllegalArgumentException("Invalid piece type: null");
         }
-        throw new IllegalArgumentException("Invalid piece type: " + pieceTypeStr);
+        return switch (pieceTypeStr) {
+            case "General" -> GENERAL;
+            case "Guard" -> GUARD;
+            case "Rook" -> ROOK;
+            case "Horse" -> HORSE;
+            case "Cannon" -> CANNON;
+            case "Soldier" -> SOLDIER;
+            case "Elephant" -> ELEPHANT;
+            default -> throw new IllegalArgumentException("Invalid piece type: " + pieceTypeStr);
+        };
     }
 } 
\ No newline at end of file
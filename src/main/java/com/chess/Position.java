@@ -2,6 +2,15 @@ package com.chess;
 
 public record Position(int row, int col) {
     
+    // 90 個格子的共用實例，Position.of 不再配置新物件
+    private static final Position[] SQUARES = new Position[Square.COUNT];
+    
+    static {
+        for (int square = 0; square < Square.COUNT; square++) {
+            SQUARES[square] = new Position(Square.row(square), Square.col(square));
+        }
+    }
+    
     public Position {
         if (row < 1 || row > 10) {
             throw new IllegalArgumentException("Row must be between 1 and 10, got: " + row);
@@ -12,7 +21,15 @@ public record Position(int row, int col) {
     }
     
     public static Position of(int row, int col) {
-        return new Position(row, col);
+        return SQUARES[Square.of(row, col)];
+    }
+    
+    public static Position ofSquare(int square) {
+        return SQUARES[square];
+    }
+    
+    public int square() {
+        return Square.of(row, col);
     }
     
     public String toKey() {
@@ -27,9 +44,9 @@ public record Position(int row, int col) {
         try {
             int row = Integer.parseInt(parts[0]);
             int col = Integer.parseInt(parts[1]);
-            return new Position(row, col);
+            return of(row, col);
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("Invalid position key: " + key, e);
         }
     }
-} 
\ No newline at end of file
+}
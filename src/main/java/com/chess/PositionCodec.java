@@ -0,0 +1,57 @@
+package com.chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 固定長度的局面二進位編碼：90 格各 4 bit（PieceCode 0..14）共 45 bytes，再加 1 byte 走棋方
+ * 第 2k 格放在第 k 個 byte 的低 4 bit，第 2k+1 格放在高 4 bit
+ * 讀寫皆直接操作 ByteBuffer 的目前位置，不建立中間物件
+ */
+public final class PositionCodec {
+
+    public static final int BYTES = Square.COUNT / 2 + 1;
+
+    private static final int NIBBLE_MASK = 0xF;
+
+    private PositionCodec() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * 將局面寫入 buffer 的目前位置，position 前進 BYTES
+     */
+    public static void encode(ChineseChessService position, ByteBuffer buffer) {
+        for (int square = 0; square < Square.COUNT; square += 2) {
+            int low = position.pieceCodeAt(square);
+            int high = position.pieceCodeAt(square + 1);
+            buffer.put((byte) (low | (high << 4)));
+        }
+        buffer.put((byte) position.sideToMove().ordinal());
+    }
+
+    /**
+     * 從 buffer 的目前位置讀出局面並擺到 position 上（悔棋紀錄一併清除），position 前進 BYTES
+     */
+    public static void decode(ByteBuffer buffer, ChineseChessService position) {
+        position.initializeBoard();
+        for (int square = 0; square < Square.COUNT; square += 2) {
+            int packed = buffer.get();
+            putPiece(position, square, packed & NIBBLE_MASK);
+            putPiece(position, square + 1, (packed >>> 4) & NIBBLE_MASK);
+        }
+        int side = buffer.get();
+        if (side != Color.RED.ordinal() && side != Color.BLACK.ordinal()) {
+            throw new IllegalArgumentException("Invalid side to move: " + side);
+        }
+        position.setSideToMove(side == Color.RED.ordinal() ? Color.RED : Color.BLACK);
+    }
+
+    private static void putPiece(ChineseChessService position, int square, int code) {
+        if (code >= PieceCode.COUNT) {
+            throw new IllegalArgumentException("Invalid piece code " + code + " at square " + square);
+        }
+        if (code != PieceCode.EMPTY) {
+            position.putPiece(square, code);
+        }
+    }
+}
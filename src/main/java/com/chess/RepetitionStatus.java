@@ -0,0 +1,27 @@
+package com.chess;
+
+/**
+ * 重複局面的判定結果
+ * 長將、長捉者判負（offender 為違規方）；雙方皆長將、皆長捉或皆未違規則判和
+ */
+public enum RepetitionStatus {
+    NONE(null),
+    DRAW(null),
+    RED_PERPETUAL_CHECK(Color.RED),
+    BLACK_PERPETUAL_CHECK(Color.BLACK),
+    RED_PERPETUAL_CHASE(Color.RED),
+    BLACK_PERPETUAL_CHASE(Color.BLACK);
+    
+    private final Color offender;
+    
+    RepetitionStatus(Color offender) {
+        this.offender = offender;
+    }
+    
+    /**
+     * 違規（判負）的一方，和棋或沒有重複時為 null
+     */
+    public Color getOffender() {
+        return offender;
+    }
+}
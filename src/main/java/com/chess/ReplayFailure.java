@@ -0,0 +1,8 @@
+package com.chess;
+
+/**
+ * 重播時一盤棋的第一個非法走法
+ * offset 為該盤棋（該行）在檔案中的起始 byte 位置，ply 由 1 起算，move 為原始文字
+ */
+public record ReplayFailure(long offset, int ply, String move) {
+}
@@ -0,0 +1,17 @@
+package com.chess;
+
+import java.util.List;
+
+/**
+ * 棋譜重播結果：盤數、合法走法數、每盤第一個非法走法（依檔案位置排序）與耗時
+ */
+public record ReplayResult(long games, long moves, List<ReplayFailure> failures, long elapsedMillis) {
+
+    public long gamesPerSecond() {
+        return elapsedMillis == 0 ? games * 1000 : games * 1000 / elapsedMillis;
+    }
+
+    public long movesPerSecond() {
+        return elapsedMillis == 0 ? moves * 1000 : moves * 1000 / elapsedMillis;
+    }
+}
@@ -0,0 +1,386 @@
+package com.chess;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static com.chess.ChessConstants.*;
+
+/**
+ * Negamax alpha-beta 搜尋引擎
+ * - 迭代加深，第 3 層起使用 aspiration window
+ * - 葉節點以只搜吃子的靜態搜尋（quiescence）延伸
+ * - 走法依 MoveOrderer 排序：置換表走法、MVV-LVA 吃子、殺手走法、歷史分數
+ * - 時間與節點數為硬性上限：每 1024 個節點檢查一次，超過即中止並回傳上一個完成深度的結果
+ * 搜尋期間直接以 makeMove/unmakeMove 在傳入的棋盤上試走，回傳前棋盤會還原
+ * - 設定殘局庫後，子力不超過 Tablebases.MAX_PIECES 的局面直接以殘局庫的勝和負與距將死步數計分
+ * - 可設定進度回報，每完成一層迭代加深即回報目前的最佳走法與統計（供 UCCI 的 info 輸出）
+ * 每個實例持有自己的走法緩衝區，不可同時被多個執行緒使用
+ */
+public final class SearchEngine {
+
+    public static final int MATE_SCORE = 30000;
+    public static final int MATE_THRESHOLD = MATE_SCORE - MAX_SEARCH_PLY;
+    public static final int DRAW_SCORE = 0;
+
+    private static final int INFINITY = 32000;
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int ASPIRATION_MIN_DEPTH = 3;
+    private static final int TIME_CHECK_MASK = 1024 - 1;
+    private static final int NO_TABLEBASE_SCORE = Integer.MIN_VALUE;
+
+    private final TranspositionTable transpositionTable;
+    private final int[][] moveBuffers = new int[MAX_SEARCH_PLY][MAX_MOVES];
+    private final int[][] scoreBuffers = new int[MAX_SEARCH_PLY][MAX_MOVES];
+    private final MoveOrderer moveOrderer = new MoveOrderer();
+    private final int[][] pvTable = new int[MAX_SEARCH_PLY][MAX_SEARCH_PLY];
+    private final int[] pvLength = new int[MAX_SEARCH_PLY];
+
+    private volatile boolean stopRequested;
+    private Tablebases tablebases;
+    private boolean moveOrdering = true;
+    private Consumer<SearchResult> progressListener;
+
+    private ChineseChessService position;
+    private long nodes;
+    private long nodeLimit;
+    private long deadlineNanos;
+    private boolean aborted;
+
+    public SearchEngine(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * 搜尋目前走棋方的最佳走法
+     */
+    public SearchResult search(ChineseChessService position, SearchLimits limits) {
+        stopRequested = false;
+        transpositionTable.newSearch();
+        return run(position, limits, 0);
+    }
+
+    /**
+     * 要求正在進行的搜尋盡快停止（可由其他執行緒呼叫）
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * 設定搜尋時查詢的殘局庫；null 表示不使用
+     */
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * 關閉時只把置換表走法排在最前，其餘不另外排序（供基準測試比較排序的效果）
+     */
+    public void setMoveOrdering(boolean enabled) {
+        this.moveOrdering = enabled;
+    }
+
+    /**
+     * 每完成一層迭代加深時以該層的結果呼叫 listener（在搜尋執行緒上）；null 表示不回報
+     */
+    public void setProgressListener(Consumer<SearchResult> listener) {
+        this.progressListener = listener;
+    }
+
+    void resetStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * 實際的迭代加深迴圈；平行搜尋時由每個 worker 以各自的 threadIndex 呼叫
+     * 奇數編號的 helper 從第 2 層開始並每次跳兩層，與主執行緒錯開深度
+     */
+    SearchResult run(ChineseChessService position, SearchLimits limits, int threadIndex) {
+        long startNanos = System.nanoTime();
+        this.position = position;
+        this.nodes = 0;
+        this.nodeLimit = limits.maxNodes();
+        this.deadlineNanos = limits.timeMillis() == SearchLimits.UNLIMITED
+                ? Long.MAX_VALUE
+                : startNanos + limits.timeMillis() * 1_000_000;
+        this.aborted = false;
+        moveOrderer.clear();
+
+        int[] rootMoves = moveBuffers[0];
+        int rootCount = position.generateLegalMoves(position.sideToMove(), rootMoves);
+        if (rootCount == 0 || position.isGameOver()) {
+            return new SearchResult(Move.NONE, -MATE_SCORE, 0, new int[0], 0, elapsedMillis(startNanos));
+        }
+
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        int[] principalVariation = {bestMove};
+        int depthStep = threadIndex % 2 == 0 ? 1 : 2;
+        for (int depth = 1 + threadIndex % 2; depth <= limits.maxDepth(); depth += depthStep) {
+            int score = aspirationSearch(depth, bestScore);
+            if (aborted) {
+                break;
+            }
+            bestMove = pvTable[0][0];
+            bestScore = score;
+            completedDepth = depth;
+            principalVariation = Arrays.copyOf(pvTable[0], pvLength[0]);
+            if (progressListener != null) {
+                progressListener.accept(new SearchResult(bestMove, bestScore, completedDepth, principalVariation,
+                        nodes, elapsedMillis(startNanos)));
+            }
+            if (Math.abs(score) >= MATE_THRESHOLD) {
+                break;
+            }
+        }
+
+        return new SearchResult(bestMove, bestScore, completedDepth, principalVariation,
+                nodes, elapsedMillis(startNanos));
+    }
+
+    private int aspirationSearch(int depth, int previousScore) {
+        if (depth < ASPIRATION_MIN_DEPTH || Math.abs(previousScore) >= MATE_THRESHOLD) {
+            return negamax(depth, -INFINITY, INFINITY, 0);
+        }
+
+        int delta = ASPIRATION_WINDOW;
+        int alpha = previousScore - delta;
+        int beta = previousScore + delta;
+        while (true) {
+            int score = negamax(depth, alpha, beta, 0);
+            if (aborted) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(-INFINITY, alpha - delta);
+            } else if (score >= beta) {
+                beta = Math.min(INFINITY, beta + delta);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        int tablebaseScore = probeTablebases(ply);
+        if (tablebaseScore != NO_TABLEBASE_SCORE) {
+            return tablebaseScore;
+        }
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+
+        nodes++;
+        if (shouldStop()) {
+            return 0;
+        }
+        if (position.isGameOver()) {
+            // 上一步吃掉了將，走棋方已輸
+            return -MATE_SCORE + ply;
+        }
+        if (ply > 0 && position.isRepetition()) {
+            // 搜尋路徑上重複的局面視為和棋
+            return DRAW_SCORE;
+        }
+        if (ply >= MAX_SEARCH_PLY - 1) {
+            return evaluate();
+        }
+
+        long key = position.positionHash();
+        long entry = transpositionTable.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = position.generateLegalMoves(position.sideToMove(), moves);
+        if (count == 0) {
+            // 象棋中無子可動即判負
+            return -MATE_SCORE + ply;
+        }
+        int[] scores = scoreBuffers[ply];
+        scoreMoves(moves, scores, count, hashMove, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = MoveOrderer.next(moves, scores, i, count);
+            boolean isQuiet = position.pieceCodeAt(Move.to(move)) == PieceCode.EMPTY;
+            position.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        if (isQuiet && moveOrdering) {
+                            moveOrderer.recordCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                : TranspositionTable.BOUND_UPPER;
+        transpositionTable.store(key, bestMove, depth, scoreToTable(bestScore, ply), bound);
+        return bestScore;
+    }
+
+    /**
+     * 查詢殘局庫（根節點除外）；結果換算為分數：將死發生在 ply + DTM，與搜尋中的將死分數一致
+     * 沒有殘局庫或查不到時回傳 NO_TABLEBASE_SCORE
+     */
+    private int probeTablebases(int ply) {
+        if (ply == 0 || tablebases == null || position.pieceCount() > Tablebases.MAX_PIECES) {
+            return NO_TABLEBASE_SCORE;
+        }
+        int result = tablebases.probe(position);
+        if (result == Tablebase.NOT_FOUND) {
+            return NO_TABLEBASE_SCORE;
+        }
+        return switch (Tablebase.wdl(result)) {
+            case Tablebase.WIN -> MATE_SCORE - ply - Tablebase.dtm(result);
+            case Tablebase.LOSS -> -MATE_SCORE + ply + Tablebase.dtm(result);
+            case Tablebase.DRAW -> DRAW_SCORE;
+            default -> NO_TABLEBASE_SCORE;
+        };
+    }
+
+    /**
+     * 靜態搜尋：只延伸吃子，直到局面安靜為止
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        nodes++;
+        if (shouldStop()) {
+            return 0;
+        }
+        if (position.isGameOver()) {
+            return -MATE_SCORE + ply;
+        }
+        int tablebaseScore = probeTablebases(ply);
+        if (tablebaseScore != NO_TABLEBASE_SCORE) {
+            return tablebaseScore;
+        }
+
+        int standPat = evaluate();
+        if (ply >= MAX_SEARCH_PLY - 1 || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = position.generateLegalCaptures(position.sideToMove(), moves);
+        int[] scores = scoreBuffers[ply];
+        scoreMoves(moves, scores, count, Move.NONE, ply);
+        int bestScore = standPat;
+        for (int i = 0; i < count; i++) {
+            int move = MoveOrderer.next(moves, scores, i, count);
+            position.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * 以走棋方觀點的靜態評估（子力與位置分為增量維護，見 Evaluation）
+     */
+    private int evaluate() {
+        return Evaluation.evaluate(position);
+    }
+
+    private boolean shouldStop() {
+        if (nodes >= nodeLimit) {
+            aborted = true;
+        } else if ((nodes & TIME_CHECK_MASK) == 0
+                && (stopRequested || System.nanoTime() - deadlineNanos >= 0)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        pvTable[ply][ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, childLength - (ply + 1));
+        pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    private void scoreMoves(int[] moves, int[] scores, int count, int hashMove, int ply) {
+        if (moveOrdering) {
+            moveOrderer.score(position, moves, scores, count, hashMove, ply);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            scores[i] = moves[i] == hashMove ? MoveOrderer.HASH_MOVE_SCORE : 0;
+        }
+    }
+
+    /**
+     * 殺棋分數存入置換表時改以「距離該節點」表示，取出時再換回「距離根節點」
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE_THRESHOLD) {
+            return score + ply;
+        }
+        if (score <= -MATE_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_THRESHOLD) {
+            return score - ply;
+        }
+        if (score <= -MATE_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
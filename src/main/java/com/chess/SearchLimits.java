@@ -0,0 +1,40 @@
+package com.chess;
+
+import static com.chess.ChessConstants.MAX_SEARCH_PLY;
+
+/**
+ * 搜尋的深度、時間（毫秒）與節點數上限；任一上限到達即停止搜尋
+ */
+public record SearchLimits(int maxDepth, long timeMillis, long maxNodes) {
+
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    public SearchLimits {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Max depth must be positive, got: " + maxDepth);
+        }
+        if (timeMillis <= 0) {
+            throw new IllegalArgumentException("Time limit must be positive, got: " + timeMillis);
+        }
+        if (maxNodes <= 0) {
+            throw new IllegalArgumentException("Node limit must be positive, got: " + maxNodes);
+        }
+        maxDepth = Math.min(maxDepth, MAX_SEARCH_PLY - 1);
+    }
+
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, UNLIMITED, UNLIMITED);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(MAX_SEARCH_PLY, timeMillis, UNLIMITED);
+    }
+
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(MAX_SEARCH_PLY, UNLIMITED, maxNodes);
+    }
+
+    public static SearchLimits infinite() {
+        return new SearchLimits(MAX_SEARCH_PLY, UNLIMITED, UNLIMITED);
+    }
+}
@@ -0,0 +1,17 @@
+package com.chess;
+
+/**
+ * 搜尋結果：最佳走法、分數（以走棋方觀點）、完成的深度、主要變例與效能數據
+ * 沒有合法走法時 bestMove 為 Move.NONE
+ */
+public record SearchResult(int bestMove, int score, int depth, int[] principalVariation,
+                           long nodes, long elapsedMillis) {
+
+    public long nodesPerSecond() {
+        return elapsedMillis == 0 ? nodes * 1000 : nodes * 1000 / elapsedMillis;
+    }
+
+    public boolean isMateScore() {
+        return Math.abs(score) >= SearchEngine.MATE_THRESHOLD;
+    }
+}
@@ -0,0 +1,88 @@
+package com.chess;
+
+import static com.chess.ChessConstants.*;
+
+/**
+ * 車與炮的滑動攻擊表，以「所在位置 + 該行/列的佔用遮罩」為索引
+ * 行（rank）遮罩為 9 bit（bit = col - 1），列（file）遮罩為 10 bit（bit = row - 1）
+ * 查表結果同樣是遮罩：
+ * - slides：車可到達的格子（含兩個方向第一個遇到的棋子）
+ * - cannonCaptures：炮跳過一個炮架後第一個遇到的棋子
+ */
+public final class SlideTables {
+
+    private static final int RANK_BITS = BOARD_COLS;
+    private static final int FILE_BITS = BOARD_ROWS;
+
+    private static final short[] RANK_SLIDES = new short[BOARD_COLS << RANK_BITS];
+    private static final short[] RANK_CANNON_CAPTURES = new short[BOARD_COLS << RANK_BITS];
+    private static final short[] FILE_SLIDES = new short[BOARD_ROWS << FILE_BITS];
+    private static final short[] FILE_CANNON_CAPTURES = new short[BOARD_ROWS << FILE_BITS];
+
+    static {
+        build(RANK_BITS, RANK_SLIDES, RANK_CANNON_CAPTURES);
+        build(FILE_BITS, FILE_SLIDES, FILE_CANNON_CAPTURES);
+    }
+
+    private SlideTables() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * 車在第 col 列（0-based）時，沿該行可到達的格子
+     */
+    public static int rankSlides(int col, int rankMask) {
+        return RANK_SLIDES[(col << RANK_BITS) | rankMask];
+    }
+
+    public static int rankCannonCaptures(int col, int rankMask) {
+        return RANK_CANNON_CAPTURES[(col << RANK_BITS) | rankMask];
+    }
+
+    /**
+     * 車在第 row 行（0-based）時，沿該列可到達的格子
+     */
+    public static int fileSlides(int row, int fileMask) {
+        return FILE_SLIDES[(row << FILE_BITS) | fileMask];
+    }
+
+    public static int fileCannonCaptures(int row, int fileMask) {
+        return FILE_CANNON_CAPTURES[(row << FILE_BITS) | fileMask];
+    }
+
+    /**
+     * 兩個位置之間（不含兩端）的遮罩
+     */
+    public static int between(int a, int b) {
+        int low = Math.min(a, b);
+        int high = Math.max(a, b);
+        return ((1 << high) - 1) & ~((1 << (low + 1)) - 1);
+    }
+
+    private static void build(int length, short[] slides, short[] cannonCaptures) {
+        for (int position = 0; position < length; position++) {
+            for (int mask = 0; mask < (1 << length); mask++) {
+                int index = (position << length) | mask;
+                int slideBits = 0;
+                int captureBits = 0;
+                for (int step = -1; step <= 1; step += 2) {
+                    boolean screenFound = false;
+                    for (int p = position + step; p >= 0 && p < length; p += step) {
+                        boolean occupied = (mask & (1 << p)) != 0;
+                        if (!screenFound) {
+                            slideBits |= 1 << p;
+                            if (occupied) {
+                                screenFound = true;
+                            }
+                        } else if (occupied) {
+                            captureBits |= 1 << p;
+                            break;
+                        }
+                    }
+                }
+                slides[index] = (short) slideBits;
+                cannonCaptures[index] = (short) captureBits;
+            }
+        }
+    }
+}
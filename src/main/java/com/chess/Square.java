@@ -0,0 +1,34 @@
+package com.chess;
+
+import static com.chess.ChessConstants.*;
+
+/**
+ * 棋盤格索引工具
+ * 以 0..89 的整數表示棋盤格：index = (row - 1) * 9 + (col - 1)
+ */
+public final class Square {
+
+    public static final int COUNT = BOARD_ROWS * BOARD_COLS;
+
+    private Square() {
+        // Utility class - prevent instantiation
+    }
+
+    public static int of(int row, int col) {
+        if (row < 1 || row > BOARD_ROWS) {
+            throw new IllegalArgumentException("Row must be between 1 and 10, got: " + row);
+        }
+        if (col < 1 || col > BOARD_COLS) {
+            throw new IllegalArgumentException("Column must be between 1 and 9, got: " + col);
+        }
+        return (row - 1) * BOARD_COLS + (col - 1);
+    }
+
+    public static int row(int square) {
+        return square / BOARD_COLS + 1;
+    }
+
+    public static int col(int square) {
+        return square % BOARD_COLS + 1;
+    }
+}
@@ -0,0 +1,185 @@
+package com.chess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 單一子力組合的殘局庫：每個局面的勝和負（WDL，以走棋方觀點）與距將死的步數（DTM，以 ply 計）
+ * WDL 每個局面 2 bit、DTM 每個局面 dtmBits bit，皆以 long 緊密打包；索引方式見 TablebaseLayout
+ * 檔案格式：magic、version、子力組合、dtmBits、局面數，其後依序為 WDL 與 DTM 的 long 陣列
+ * 由檔案讀取的殘局庫直接在映射區上查詢（只用絕對位置讀取，可多執行緒共用），不把表格複製到 heap
+ * probe 的結果以單一 int 打包，再以 wdl/dtm 靜態方法解碼
+ */
+public final class Tablebase {
+
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    public static final int INVALID = 3;
+
+    // probe 找不到局面時回傳的值
+    public static final int NOT_FOUND = -1;
+
+    private static final int MAGIC = 0x58515442;
+    private static final int VERSION = 1;
+    private static final int WDL_BITS = 2;
+    private static final int WDL_PER_LONG = Long.SIZE / WDL_BITS;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private final TablebaseLayout layout;
+    private final LongBuffer wdl;
+    private final LongBuffer dtm;
+    private final int dtmBits;
+
+    private Tablebase(TablebaseLayout layout, LongBuffer wdl, LongBuffer dtm, int dtmBits) {
+        this.layout = layout;
+        this.wdl = wdl;
+        this.dtm = dtm;
+        this.dtmBits = dtmBits;
+    }
+
+    /**
+     * 由生成結果打包；dtm 中的距離不可為負
+     */
+    static Tablebase pack(TablebaseLayout layout, byte[] results, short[] distances) {
+        int maxDtm = 0;
+        for (short distance : distances) {
+            maxDtm = Math.max(maxDtm, distance);
+        }
+        int dtmBits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(maxDtm));
+        int size = layout.size();
+        long[] wdl = new long[wdlLongs(size)];
+        long[] dtm = new long[dtmLongs(size, dtmBits)];
+        for (int i = 0; i < size; i++) {
+            wdl[i / WDL_PER_LONG] |= (long) results[i] << ((i % WDL_PER_LONG) * WDL_BITS);
+            long offset = (long) i * dtmBits;
+            int word = (int) (offset >>> 6);
+            int shift = (int) (offset & 63);
+            dtm[word] |= (long) distances[i] << shift;
+            if (shift + dtmBits > Long.SIZE) {
+                dtm[word + 1] |= (long) distances[i] >>> (Long.SIZE - shift);
+            }
+        }
+        return new Tablebase(layout, LongBuffer.wrap(wdl), LongBuffer.wrap(dtm), dtmBits);
+    }
+
+    public static int wdl(int result) {
+        return result & 0x3;
+    }
+
+    public static int dtm(int result) {
+        return result >>> WDL_BITS;
+    }
+
+    public String signature() {
+        return layout.signature();
+    }
+
+    public int size() {
+        return layout.size();
+    }
+
+    long materialKey() {
+        return layout.materialKey();
+    }
+
+    TablebaseLayout layout() {
+        return layout;
+    }
+
+    /**
+     * 查詢局面；子力必須與此殘局庫相符。回傳打包的 (WDL, DTM)，棋子不在定義域中時回傳 NOT_FOUND
+     */
+    public int probe(ChineseChessService position) {
+        int index = layout.index(position);
+        return index < 0 ? NOT_FOUND : result(index);
+    }
+
+    public int result(int index) {
+        return wdlAt(index) | (dtmAt(index) << WDL_BITS);
+    }
+
+    private int wdlAt(int index) {
+        return (int) (wdl.get(index / WDL_PER_LONG) >>> ((index % WDL_PER_LONG) * WDL_BITS)) & 0x3;
+    }
+
+    private int dtmAt(int index) {
+        long offset = (long) index * dtmBits;
+        int word = (int) (offset >>> 6);
+        int shift = (int) (offset & 63);
+        long bits = dtm.get(word) >>> shift;
+        if (shift + dtmBits > Long.SIZE) {
+            bits |= dtm.get(word + 1) << (Long.SIZE - shift);
+        }
+        return (int) (bits & ((1L << dtmBits) - 1));
+    }
+
+    public void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            byte[] signature = signature().getBytes(StandardCharsets.US_ASCII);
+            buffer.putInt(MAGIC).putInt(VERSION).put((byte) signature.length).put(signature)
+                    .put((byte) dtmBits).putInt(size());
+            writeLongs(channel, buffer, wdl);
+            writeLongs(channel, buffer, dtm);
+            flush(channel, buffer);
+        }
+    }
+
+    public static Tablebase read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IllegalArgumentException("Not a tablebase file: " + file);
+            }
+            byte[] signature = new byte[buffer.get()];
+            buffer.get(signature);
+            TablebaseLayout layout = TablebaseLayout.of(new String(signature, StandardCharsets.US_ASCII));
+            int dtmBits = buffer.get();
+            int size = buffer.getInt();
+            if (size != layout.size() || dtmBits < 1 || dtmBits > Short.SIZE) {
+                throw new IllegalArgumentException("Corrupt tablebase file: " + file);
+            }
+            int wdlLongs = wdlLongs(size);
+            int dtmLongs = dtmLongs(size, dtmBits);
+            LongBuffer longs = buffer.slice().asLongBuffer();
+            if (longs.remaining() < wdlLongs + dtmLongs) {
+                throw new IllegalArgumentException("Truncated tablebase file: " + file);
+            }
+            // 映射在通道關閉後仍然有效
+            return new Tablebase(layout, longs.slice(0, wdlLongs), longs.slice(wdlLongs, dtmLongs), dtmBits);
+        }
+    }
+
+    private static int wdlLongs(int size) {
+        return (size + WDL_PER_LONG - 1) / WDL_PER_LONG;
+    }
+
+    private static int dtmLongs(int size, int dtmBits) {
+        return (int) (((long) size * dtmBits + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    private static void writeLongs(FileChannel channel, ByteBuffer buffer, LongBuffer values) throws IOException {
+        for (int i = 0; i < values.limit(); i++) {
+            if (buffer.remaining() < Long.BYTES) {
+                flush(channel, buffer);
+            }
+            buffer.putLong(values.get(i));
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,336 @@
+package com.chess;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.chess.ChessConstants.MAX_MOVES;
+
+/**
+ * 以逆向分析（retrograde analysis）生成殘局庫
+ * 1. 初始化：逐一擺出每個索引的局面，以既有的走法產生器走一步。
+ *    不吃子的走法留在本表，只計數；吃子的走法落到少一子的子表，直接查子表的結果。
+ *    無子可動（將死或困斃）即為 0 步負
+ * 2. 依距離 n = 0, 1, 2 ... 逐輪確定結果：
+ *    - 第 n 輪確定為負的局面，其所有前一步局面（以反向走法表「退一步」得到）都是 n + 1 步勝
+ *    - 第 n 輪確定為勝的局面，讓每個前一步局面的剩餘出路減一；出路歸零即為負，距離取最長的一條
+ * 3. 最後仍未確定的局面為和棋（不考慮長將、長捉等重複規則）
+ * 每一輪把索引範圍切成多段平行處理；每個局面的出路數與兩個距離打包成一個 int，以 VarHandle CAS 更新
+ */
+final class TablebaseGenerator {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte WIN = 1;
+    private static final byte LOSS = 2;
+    private static final byte INVALID = 3;
+
+    // 打包欄位：bit 0-7 剩餘出路、bit 8-19 最短的勝距離、bit 20-31 最長的負距離
+    private static final int ESCAPE_MASK = 0xFF;
+    private static final int DISTANCE_BITS = 12;
+    private static final int DISTANCE_MASK = (1 << DISTANCE_BITS) - 1;
+    private static final int WIN_SHIFT = 8;
+    private static final int LOSS_SHIFT = WIN_SHIFT + DISTANCE_BITS;
+    private static final int NO_WIN = DISTANCE_MASK;
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final TablebaseLayout layout;
+    private final Tablebases subtables;
+    private final int threads;
+
+    // 每個局面的狀態，以及打包的剩餘出路與距離
+    private final byte[] states;
+    private final int[] entries;
+    private final AtomicInteger horizon = new AtomicInteger();
+
+    private TablebaseGenerator(TablebaseLayout layout, Tablebases subtables, int threads) {
+        this.layout = layout;
+        this.subtables = subtables;
+        this.threads = threads;
+        this.states = new byte[layout.size()];
+        this.entries = new int[layout.size()];
+    }
+
+    /**
+     * 生成殘局庫；吃子後的子表必須已存在於 subtables
+     */
+    static Tablebase generate(TablebaseLayout layout, Tablebases subtables, int threads) {
+        TablebaseGenerator generator = new TablebaseGenerator(layout, subtables, threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tablebase-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            generator.runPass(pool, -1);
+            for (int distance = 0; distance <= generator.horizon.get(); distance++) {
+                generator.runPass(pool, distance);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return generator.pack();
+    }
+
+    /**
+     * 將索引範圍切段後平行執行；distance = -1 為初始化
+     */
+    private void runPass(ExecutorService pool, int distance) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < layout.size(); start += CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(start + CHUNK_SIZE, layout.size());
+            tasks.add(() -> {
+                if (distance < 0) {
+                    initialize(from, to);
+                } else {
+                    resolve(from, to, distance);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating " + layout.signature(), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tablebase generation failed for " + layout.signature(), e.getCause());
+        }
+    }
+
+    private void initialize(int from, int to) {
+        ChineseChessService position = new ChineseChessService();
+        int[] squares = new int[layout.pieces()];
+        int[] moves = new int[MAX_MOVES];
+        for (int index = from; index < to; index++) {
+            if (!layout.decode(index, squares)) {
+                states[index] = INVALID;
+                continue;
+            }
+            position.initializeBoard();
+            for (int k = 0; k < squares.length; k++) {
+                position.putPiece(squares[k], layout.code(k));
+            }
+            Color side = TablebaseLayout.side(index);
+            position.setSideToMove(side);
+            // 不走棋的一方被將：上一步不合法，局面不存在
+            if (position.isInCheck(side.opposite())) {
+                states[index] = INVALID;
+                continue;
+            }
+
+            int count = position.generateLegalMoves(side, moves);
+            int escapeCount = 0;
+            int winDistance = NO_WIN;
+            int lossDistance = 0;
+            for (int i = 0; i < count; i++) {
+                if (position.pieceCodeAt(Move.to(moves[i])) == PieceCode.EMPTY) {
+                    escapeCount++;
+                    continue;
+                }
+                position.makeMove(moves[i]);
+                int result = subtables.probe(position);
+                position.unmakeMove();
+                if (result == Tablebase.NOT_FOUND) {
+                    throw new IllegalStateException("Missing subtable for a capture in " + layout.signature());
+                }
+                switch (Tablebase.wdl(result)) {
+                    case Tablebase.LOSS -> winDistance = Math.min(winDistance, Tablebase.dtm(result) + 1);
+                    case Tablebase.WIN -> lossDistance = Math.max(lossDistance, Tablebase.dtm(result) + 1);
+                    default -> escapeCount++;
+                }
+            }
+            entries[index] = pack(escapeCount, winDistance, lossDistance);
+            if (winDistance != NO_WIN) {
+                extendHorizon(winDistance);
+            } else if (escapeCount == 0) {
+                extendHorizon(lossDistance);
+            }
+        }
+    }
+
+    /**
+     * 確定距離為 distance 的局面，並更新它們的前一步局面
+     * 本輪寫入的距離都是 distance + 1，因此同一輪內的判斷不受其他執行緒影響
+     */
+    private void resolve(int from, int to, int distance) {
+        int[] squares = new int[layout.pieces()];
+        int[] predecessor = new int[layout.pieces()];
+        for (int index = from; index < to; index++) {
+            if (states[index] != UNKNOWN) {
+                continue;
+            }
+            int entry = (int) ENTRIES.getVolatile(entries, index);
+            if (winDistance(entry) == distance) {
+                states[index] = WIN;
+                layout.decode(index, squares);
+                forEachPredecessor(index, squares, predecessor, false, distance + 1);
+            } else if (escapes(entry) == 0 && lossDistance(entry) == distance && winDistance(entry) == NO_WIN) {
+                states[index] = LOSS;
+                layout.decode(index, squares);
+                forEachPredecessor(index, squares, predecessor, true, distance + 1);
+            }
+        }
+    }
+
+    /**
+     * 以反向走法表列出「對手剛走了一步不吃子的棋」的所有前一步局面
+     * 車炮不吃子的走法與滑動對稱；馬與兵使用反向走法表；象、士、將的走法表本身對稱
+     */
+    private void forEachPredecessor(int index, int[] squares, int[] predecessor, boolean isLoss, int distance) {
+        Color mover = TablebaseLayout.side(index).opposite();
+        int[] rankOccupancy = new int[ChessConstants.BOARD_ROWS];
+        int[] fileOccupancy = new int[ChessConstants.BOARD_COLS];
+        for (int square : squares) {
+            rankOccupancy[Square.row(square) - 1] |= 1 << (Square.col(square) - 1);
+            fileOccupancy[Square.col(square) - 1] |= 1 << (Square.row(square) - 1);
+        }
+
+        for (int slot = 0; slot < squares.length; slot++) {
+            int code = layout.code(slot);
+            if (!PieceCode.isColor(code, mover)) {
+                continue;
+            }
+            int to = squares[slot];
+            int row = Square.row(to) - 1;
+            int col = Square.col(to) - 1;
+            switch (PieceCode.type(code)) {
+                case ROOK, CANNON -> {
+                    int rankMask = rankOccupancy[row];
+                    for (int bits = SlideTables.rankSlides(col, rankMask) & ~rankMask; bits != 0; bits &= bits - 1) {
+                        int from = row * ChessConstants.BOARD_COLS + Integer.numberOfTrailingZeros(bits);
+                        update(squares, predecessor, slot, from, mover, isLoss, distance);
+                    }
+                    int fileMask = fileOccupancy[col];
+                    for (int bits = SlideTables.fileSlides(row, fileMask) & ~fileMask; bits != 0; bits &= bits - 1) {
+                        int from = Integer.numberOfTrailingZeros(bits) * ChessConstants.BOARD_COLS + col;
+                        update(squares, predecessor, slot, from, mover, isLoss, distance);
+                    }
+                }
+                case HORSE -> unmoveJumps(MoveTables.HORSE_ATTACKERS, squares, predecessor, slot, mover, isLoss,
+                        distance);
+                case ELEPHANT -> unmoveJumps(MoveTables.ELEPHANT[mover.ordinal()], squares, predecessor, slot, mover,
+                        isLoss, distance);
+                case GUARD -> unmoveJumps(MoveTables.GUARD[mover.ordinal()], squares, predecessor, slot, mover,
+                        isLoss, distance);
+                case GENERAL -> unmoveJumps(MoveTables.GENERAL[mover.ordinal()], squares, predecessor, slot, mover,
+                        isLoss, distance);
+                case SOLDIER -> unmoveJumps(MoveTables.SOLDIER_ATTACKERS[mover.ordinal()], squares, predecessor, slot,
+                        mover, isLoss, distance);
+            }
+        }
+    }
+
+    private void unmoveJumps(JumpTable table, int[] squares, int[] predecessor, int slot, Color mover,
+                             boolean isLoss, int distance) {
+        int[] sources = table.targets(squares[slot]);
+        int[] blockers = table.blockers(squares[slot]);
+        for (int i = 0; i < sources.length; i++) {
+            if (!isOccupied(squares, sources[i])
+                    && (blockers[i] == JumpTable.NO_BLOCKER || !isOccupied(squares, blockers[i]))) {
+                update(squares, predecessor, slot, sources[i], mover, isLoss, distance);
+            }
+        }
+    }
+
+    /**
+     * 前一步局面：slot 上的棋子原本在 from。負局的前一步為勝；勝局的前一步少一條出路
+     */
+    private void update(int[] squares, int[] predecessor, int slot, int from, Color mover,
+                        boolean isLoss, int distance) {
+        if (TablebaseLayout.domainIndex(layout.code(slot), from) < 0) {
+            return;
+        }
+        System.arraycopy(squares, 0, predecessor, 0, squares.length);
+        predecessor[slot] = from;
+        int index = layout.index(predecessor, mover);
+        if (states[index] != UNKNOWN) {
+            return;
+        }
+        if (distance >= NO_WIN) {
+            throw new IllegalStateException("Distance to mate too long in " + layout.signature());
+        }
+        int entry = (int) ENTRIES.getVolatile(entries, index);
+        while (true) {
+            int updated;
+            if (isLoss) {
+                if (winDistance(entry) <= distance) {
+                    return;
+                }
+                updated = pack(escapes(entry), distance, lossDistance(entry));
+            } else {
+                updated = pack(escapes(entry) - 1, winDistance(entry), Math.max(lossDistance(entry), distance));
+            }
+            int witness = (int) ENTRIES.compareAndExchange(entries, index, entry, updated);
+            if (witness == entry) {
+                if (isLoss) {
+                    extendHorizon(distance);
+                } else if (escapes(updated) == 0) {
+                    extendHorizon(lossDistance(updated));
+                }
+                return;
+            }
+            entry = witness;
+        }
+    }
+
+    private static boolean isOccupied(int[] squares, int square) {
+        for (int occupied : squares) {
+            if (occupied == square) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int pack(int escapes, int winDistance, int lossDistance) {
+        return escapes | (winDistance << WIN_SHIFT) | (lossDistance << LOSS_SHIFT);
+    }
+
+    private static int escapes(int entry) {
+        return entry & ESCAPE_MASK;
+    }
+
+    private static int winDistance(int entry) {
+        return (entry >>> WIN_SHIFT) & DISTANCE_MASK;
+    }
+
+    private static int lossDistance(int entry) {
+        return entry >>> LOSS_SHIFT;
+    }
+
+    private void extendHorizon(int distance) {
+        horizon.accumulateAndGet(distance, Math::max);
+    }
+
+    private Tablebase pack() {
+        byte[] results = new byte[layout.size()];
+        short[] distances = new short[layout.size()];
+        for (int index = 0; index < layout.size(); index++) {
+            switch (states[index]) {
+                case WIN -> {
+                    results[index] = Tablebase.WIN;
+                    distances[index] = (short) winDistance(entries[index]);
+                }
+                case LOSS -> {
+                    results[index] = Tablebase.LOSS;
+                    distances[index] = (short) lossDistance(entries[index]);
+                }
+                case INVALID -> results[index] = Tablebase.INVALID;
+                default -> results[index] = Tablebase.DRAW;
+            }
+        }
+        return Tablebase.pack(layout, results, distances);
+    }
+}
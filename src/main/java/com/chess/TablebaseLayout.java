@@ -0,0 +1,235 @@
+package com.chess;
+
+import java.util.Arrays;
+
+/**
+ * 殘局庫的局面索引
+ * 子力組合以 FEN 字母表示（例如 "KRk"），依 PieceCode 排序：紅方在前、黑方在後，雙方都必須有將帥
+ * 每枚棋子只放在它可能到達的格子（定義域）：將帥在宮內、士在士位、象在己方象位、兵在可到達的兵位，
+ * 車馬炮為全盤；定義域由標準開局出發、沿走法表擴展而得，因此宮與河界的限制都來自既有的走法表
+ * 索引 = 走棋方（bit 0）+ 2 × 各棋子定義域位置的混合進位組合（第一枚棋子為最高位）
+ * 相同的棋子必須依格子由小到大排列，其餘排列與重疊的索引皆為無效
+ */
+final class TablebaseLayout {
+
+    // [PieceCode] -> 定義域中的格子（由小到大）
+    private static final int[][] DOMAINS = new int[PieceCode.COUNT][];
+    // [PieceCode][Square] -> 定義域位置，-1 表示不在定義域中
+    private static final int[][] DOMAIN_INDEX = new int[PieceCode.COUNT][];
+
+    static {
+        ChineseChessService initial = new ChineseChessService();
+        initial.setupInitialPosition();
+        for (int code = 1; code < PieceCode.COUNT; code++) {
+            boolean[] reachable = reachableSquares(initial, code);
+            int[] squares = new int[Square.COUNT];
+            int[] index = new int[Square.COUNT];
+            Arrays.fill(index, -1);
+            int count = 0;
+            for (int square = 0; square < Square.COUNT; square++) {
+                if (reachable[square]) {
+                    index[square] = count;
+                    squares[count++] = square;
+                }
+            }
+            DOMAINS[code] = Arrays.copyOf(squares, count);
+            DOMAIN_INDEX[code] = index;
+        }
+    }
+
+    private final String signature;
+    private final int[] codes;
+    private final int[] strides;
+    private final int size;
+    private final long materialKey;
+
+    private TablebaseLayout(int[] codes) {
+        this.codes = codes;
+        this.strides = new int[codes.length];
+        long stride = 2;
+        for (int k = codes.length - 1; k >= 0; k--) {
+            strides[k] = (int) stride;
+            stride *= DOMAINS[codes[k]].length;
+            if (stride > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Tablebase too large: " + signature(codes));
+            }
+        }
+        this.size = (int) stride;
+        this.signature = signature(codes);
+        this.materialKey = materialKey(codes);
+    }
+
+    /**
+     * 解析子力組合；字母順序不拘，雙方各需恰好一個將帥，總數不超過 Tablebases.MAX_PIECES
+     */
+    static TablebaseLayout of(String signature) {
+        if (signature == null || signature.isEmpty() || signature.length() > Tablebases.MAX_PIECES) {
+            throw new IllegalArgumentException("Invalid tablebase signature: " + signature);
+        }
+        int[] codes = new int[signature.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = Fen.pieceCode(signature.charAt(i));
+            if (codes[i] == PieceCode.EMPTY) {
+                throw new IllegalArgumentException("Invalid tablebase signature: " + signature);
+            }
+        }
+        Arrays.sort(codes);
+        int redGenerals = 0;
+        int blackGenerals = 0;
+        for (int code : codes) {
+            redGenerals += code == PieceCode.of(Color.RED, PieceType.GENERAL) ? 1 : 0;
+            blackGenerals += code == PieceCode.of(Color.BLACK, PieceType.GENERAL) ? 1 : 0;
+        }
+        if (redGenerals != 1 || blackGenerals != 1) {
+            throw new IllegalArgumentException("Tablebase signature needs exactly one General per side: " + signature);
+        }
+        return new TablebaseLayout(codes);
+    }
+
+    static String signature(int[] codes) {
+        StringBuilder signature = new StringBuilder(codes.length);
+        for (int code : codes) {
+            signature.append(Fen.pieceChar(code));
+        }
+        return signature.toString();
+    }
+
+    /**
+     * 子力的鍵：每種 PieceCode 的數量佔 3 bit
+     */
+    static long materialKey(int[] codes) {
+        long key = 0;
+        for (int code : codes) {
+            key += 1L << (code * 3);
+        }
+        return key;
+    }
+
+    static int domainIndex(int code, int square) {
+        return DOMAIN_INDEX[code][square];
+    }
+
+    static Color side(int index) {
+        return (index & 1) == 0 ? Color.RED : Color.BLACK;
+    }
+
+    String signature() {
+        return signature;
+    }
+
+    long materialKey() {
+        return materialKey;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int pieces() {
+        return codes.length;
+    }
+
+    int code(int slot) {
+        return codes[slot];
+    }
+
+    /**
+     * 由索引還原各棋子的格子；索引無效（重疊或相同棋子未依序排列）時回傳 false
+     */
+    boolean decode(int index, int[] squares) {
+        for (int k = 0; k < codes.length; k++) {
+            int[] domain = DOMAINS[codes[k]];
+            int square = domain[(index / strides[k]) % domain.length];
+            for (int j = 0; j < k; j++) {
+                if (squares[j] == square || (codes[j] == codes[k] && squares[j] > square)) {
+                    return false;
+                }
+            }
+            squares[k] = square;
+        }
+        return true;
+    }
+
+    /**
+     * 各棋子格子與走棋方對應的索引；相同的棋子會先就地依格子排序
+     * 格子必須在各自的定義域中
+     */
+    int index(int[] squares, Color side) {
+        for (int k = 1; k < codes.length; k++) {
+            for (int j = k; j > 0 && codes[j - 1] == codes[j] && squares[j - 1] > squares[j]; j--) {
+                int square = squares[j];
+                squares[j] = squares[j - 1];
+                squares[j - 1] = square;
+            }
+        }
+        int index = side.ordinal();
+        for (int k = 0; k < codes.length; k++) {
+            index += DOMAIN_INDEX[codes[k]][squares[k]] * strides[k];
+        }
+        return index;
+    }
+
+    /**
+     * 目前局面的索引；呼叫端須確認子力相符。棋子不在定義域中時回傳 -1
+     * 由小到大掃描格子，相同的棋子自然依序填入，不配置物件
+     */
+    int index(ChineseChessService position) {
+        int index = position.sideToMove().ordinal();
+        int filled = 0;
+        for (int square = 0; square < Square.COUNT; square++) {
+            int code = position.pieceCodeAt(square);
+            if (code == PieceCode.EMPTY) {
+                continue;
+            }
+            int slot = 0;
+            while (slot < codes.length && (codes[slot] != code || (filled & (1 << slot)) != 0)) {
+                slot++;
+            }
+            int domainIndex = slot < codes.length ? DOMAIN_INDEX[code][square] : -1;
+            if (domainIndex < 0) {
+                return -1;
+            }
+            filled |= 1 << slot;
+            index += domainIndex * strides[slot];
+        }
+        return index;
+    }
+
+    /**
+     * 由開局位置沿走法表擴展出可到達的格子；車、馬、炮不受限制
+     */
+    private static boolean[] reachableSquares(ChineseChessService initial, int code) {
+        boolean[] reachable = new boolean[Square.COUNT];
+        int color = PieceCode.color(code).ordinal();
+        JumpTable table = switch (PieceCode.type(code)) {
+            case GENERAL -> MoveTables.GENERAL[color];
+            case GUARD -> MoveTables.GUARD[color];
+            case ELEPHANT -> MoveTables.ELEPHANT[color];
+            case SOLDIER -> MoveTables.SOLDIER[color];
+            case ROOK, HORSE, CANNON -> null;
+        };
+        if (table == null) {
+            Arrays.fill(reachable, true);
+            return reachable;
+        }
+
+        int[] queue = new int[Square.COUNT];
+        int head = 0;
+        int tail = 0;
+        for (int square = 0; square < Square.COUNT; square++) {
+            if (initial.pieceCodeAt(square) == code) {
+                reachable[square] = true;
+                queue[tail++] = square;
+            }
+        }
+        while (head < tail) {
+            for (int target : table.targets(queue[head++])) {
+                if (!reachable[target]) {
+                    reachable[target] = true;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return reachable;
+    }
+}
@@ -0,0 +1,150 @@
+package com.chess;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 殘局庫集合：依子力查找對應的 Tablebase，供搜尋在行程內直接查詢
+ * 以子力的鍵做開放定址查表，probe 不配置物件；加入殘局庫時整批替換查表陣列，
+ * 因此多個搜尋執行緒可同時 probe
+ */
+public final class Tablebases {
+
+    public static final int MAX_PIECES = 5;
+
+    private static final String FILE_SUFFIX = ".xqtb";
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile Slots slots = new Slots(new long[MIN_CAPACITY], new Tablebase[MIN_CAPACITY], 0);
+
+    /**
+     * 生成指定子力組合的殘局庫（例如 "KRk"），並先遞迴生成吃子後會用到的所有子表
+     * 已存在的殘局庫不會重新生成
+     */
+    public Tablebase generate(String signature, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive, got: " + threads);
+        }
+        return generate(TablebaseLayout.of(signature), threads);
+    }
+
+    private Tablebase generate(TablebaseLayout layout, int threads) {
+        Tablebase existing = find(layout.materialKey());
+        if (existing != null) {
+            return existing;
+        }
+        int[] codes = new int[layout.pieces()];
+        for (int slot = 0; slot < codes.length; slot++) {
+            codes[slot] = layout.code(slot);
+        }
+        for (int slot = 0; slot < codes.length; slot++) {
+            if (PieceCode.type(codes[slot]) != PieceType.GENERAL) {
+                int[] remaining = new int[codes.length - 1];
+                System.arraycopy(codes, 0, remaining, 0, slot);
+                System.arraycopy(codes, slot + 1, remaining, slot, remaining.length - slot);
+                generate(TablebaseLayout.of(TablebaseLayout.signature(remaining)), threads);
+            }
+        }
+        Tablebase tablebase = TablebaseGenerator.generate(layout, this, threads);
+        add(tablebase);
+        return tablebase;
+    }
+
+    public synchronized void add(Tablebase tablebase) {
+        Slots current = slots;
+        int capacity = current.keys.length;
+        if ((current.count + 1) * 2 > capacity) {
+            capacity *= 2;
+        }
+        long[] keys = new long[capacity];
+        Tablebase[] tables = new Tablebase[capacity];
+        int count = 0;
+        for (Tablebase existing : current.tables) {
+            if (existing != null && existing.materialKey() != tablebase.materialKey()) {
+                insert(keys, tables, existing);
+                count++;
+            }
+        }
+        insert(keys, tables, tablebase);
+        slots = new Slots(keys, tables, count + 1);
+    }
+
+    /**
+     * 依子力組合取得殘局庫；不存在時回傳 null
+     */
+    public Tablebase get(String signature) {
+        return find(TablebaseLayout.of(signature).materialKey());
+    }
+
+    public int size() {
+        return slots.count;
+    }
+
+    /**
+     * 查詢局面；棋子超過 MAX_PIECES 或沒有對應的殘局庫時回傳 Tablebase.NOT_FOUND
+     */
+    public int probe(ChineseChessService position) {
+        if (position.pieceCount() > MAX_PIECES) {
+            return Tablebase.NOT_FOUND;
+        }
+        Tablebase tablebase = find(position.materialKey());
+        return tablebase == null ? Tablebase.NOT_FOUND : tablebase.probe(position);
+    }
+
+    /**
+     * 每個殘局庫存成目錄下的一個檔案，檔名為子力組合
+     */
+    public void save(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Tablebase tablebase : slots.tables) {
+            if (tablebase != null) {
+                tablebase.write(directory.resolve(tablebase.signature() + FILE_SUFFIX));
+            }
+        }
+    }
+
+    /**
+     * 讀入目錄下所有殘局庫檔案，回傳讀入的數量
+     */
+    public int load(Path directory) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                add(Tablebase.read(file));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Tablebase find(long materialKey) {
+        Slots current = slots;
+        int mask = current.keys.length - 1;
+        for (int i = slot(materialKey, mask); current.tables[i] != null; i = (i + 1) & mask) {
+            if (current.keys[i] == materialKey) {
+                return current.tables[i];
+            }
+        }
+        return null;
+    }
+
+    private static void insert(long[] keys, Tablebase[] tables, Tablebase tablebase) {
+        int mask = keys.length - 1;
+        int i = slot(tablebase.materialKey(), mask);
+        while (tables[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = tablebase.materialKey();
+        tables[i] = tablebase;
+    }
+
+    private static int slot(long materialKey, int mask) {
+        long mixed = materialKey * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & mask;
+    }
+
+    private record Slots(long[] keys, Tablebase[] tables, int count) {
+    }
+}
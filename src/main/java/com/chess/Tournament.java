@@ -0,0 +1,164 @@
+package com.chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 引擎對戰：兩個引擎設定在 ForkJoinPool 上平行下多盤棋，用於發佈前檢查棋力與速度是否退步
+ * - 開局取自種子清單（ICCS 走法，從標準開局開始，紅黑輪流），每個開局雙方各執紅一次
+ * - 每步以 moveLimits 搜尋；耗時超過時間上限加 TIME_GRACE_MILLIS 即超時判負
+ * - 任一方無合法走法、將死、長將等由 ChineseChessService 判定；達 maxPlies 步仍未結束判和
+ * 每盤棋各自建立兩個引擎與棋盤（各方以自己的評估權重），結果累加在 LongAdder，執行緒之間不需鎖
+ */
+public final class Tournament implements AutoCloseable {
+
+    public static final long TIME_GRACE_MILLIS = 100;
+
+    private final ForkJoinPool pool;
+    private final SearchLimits moveLimits;
+    private final int maxPlies;
+
+    public Tournament(int threads, SearchLimits moveLimits, int maxPlies) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got: " + threads);
+        }
+        if (maxPlies < 1) {
+            throw new IllegalArgumentException("Max plies must be positive, got: " + maxPlies);
+        }
+        this.pool = new ForkJoinPool(threads);
+        this.moveLimits = Objects.requireNonNull(moveLimits, "Move limits cannot be null");
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * 下 games 盤棋並等待全部結束；第 i 盤使用第 (i / 2) % openings.size() 個開局，i 為偶數時 first 執紅
+     * openings 為空時一律從標準開局開始
+     */
+    public TournamentResult play(EngineConfig first, EngineConfig second, List<String> openings, int games) {
+        Objects.requireNonNull(first, "First engine cannot be null");
+        Objects.requireNonNull(second, "Second engine cannot be null");
+        if (games < 1) {
+            throw new IllegalArgumentException("Game count must be positive, got: " + games);
+        }
+        List<int[]> openingMoves = parseOpenings(openings);
+
+        long startNanos = System.nanoTime();
+        Tally[] tallies = {new Tally(), new Tally()};
+        EngineConfig[] configs = {first, second};
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(games);
+        for (int game = 0; game < games; game++) {
+            int[] opening = openingMoves.get((game / 2) % openingMoves.size());
+            int redIndex = game % 2;
+            tasks.add(pool.submit(() -> playGame(configs, tallies, opening, redIndex)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        return new TournamentResult(tallies[0].score(first.name()), tallies[1].score(second.name()), elapsedMillis);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 下一盤棋；configs[redIndex] 執紅
+     */
+    private void playGame(EngineConfig[] configs, Tally[] tallies, int[] opening, int redIndex) {
+        SearchEngine[] engines = new SearchEngine[2];
+        ChineseChessService[] boards = new ChineseChessService[2];
+        for (int i = 0; i < 2; i++) {
+            engines[i] = configs[i].newEngine();
+            boards[i] = new ChineseChessService();
+            boards[i].setupInitialPosition();
+            boards[i].setEvaluationWeights(configs[i].weights());
+            for (int move : opening) {
+                boards[i].move(move);
+            }
+        }
+
+        for (int plies = 0; plies < maxPlies && !boards[0].isGameOver(); plies++) {
+            int mover = boards[0].sideToMove() == Color.RED ? redIndex : 1 - redIndex;
+            SearchResult result = engines[mover].search(boards[mover], moveLimits);
+            tallies[mover].nodes.add(result.nodes());
+            tallies[mover].searchMillis.add(result.elapsedMillis());
+            if (moveLimits.timeMillis() != SearchLimits.UNLIMITED
+                    && result.elapsedMillis() > moveLimits.timeMillis() + TIME_GRACE_MILLIS) {
+                tallies[mover].timeLosses.increment();
+                record(tallies, 1 - mover);
+                return;
+            }
+            if (result.bestMove() == Move.NONE) {
+                break;
+            }
+            for (ChineseChessService board : boards) {
+                if (!board.move(result.bestMove())) {
+                    throw new IllegalStateException("Engine " + configs[mover].name()
+                            + " played an illegal move: " + Iccs.format(result.bestMove()));
+                }
+            }
+        }
+
+        String winner = boards[0].getWinner();
+        if (!boards[0].isGameOver() || winner == null) {
+            record(tallies, -1);
+        } else {
+            record(tallies, Color.fromString(winner) == Color.RED ? redIndex : 1 - redIndex);
+        }
+    }
+
+    /**
+     * 記錄一盤的勝負；winnerIndex 為 -1 表示和棋
+     */
+    private static void record(Tally[] tallies, int winnerIndex) {
+        if (winnerIndex < 0) {
+            tallies[0].draws.increment();
+            tallies[1].draws.increment();
+        } else {
+            tallies[winnerIndex].wins.increment();
+            tallies[1 - winnerIndex].losses.increment();
+        }
+    }
+
+    private static List<int[]> parseOpenings(List<String> openings) {
+        Objects.requireNonNull(openings, "Openings cannot be null");
+        List<int[]> parsed = new ArrayList<>(openings.size());
+        for (String opening : openings) {
+            String[] tokens = opening.isBlank() ? new String[0] : opening.trim().split("\\s+");
+            int[] moves = new int[tokens.length];
+            ChineseChessService position = new ChineseChessService();
+            position.setupInitialPosition();
+            for (int i = 0; i < tokens.length; i++) {
+                moves[i] = Iccs.parse(tokens[i]);
+                if (moves[i] == Iccs.INVALID || !position.playTurn(moves[i]) || position.isGameOver()) {
+                    throw new IllegalArgumentException("Invalid opening move " + tokens[i] + " in: " + opening);
+                }
+            }
+            parsed.add(moves);
+        }
+        if (parsed.isEmpty()) {
+            parsed.add(new int[0]);
+        }
+        return parsed;
+    }
+
+    private static final class Tally {
+        final LongAdder wins = new LongAdder();
+        final LongAdder draws = new LongAdder();
+        final LongAdder losses = new LongAdder();
+        final LongAdder timeLosses = new LongAdder();
+        final LongAdder nodes = new LongAdder();
+        final LongAdder searchMillis = new LongAdder();
+
+        EngineScore score(String name) {
+            return new EngineScore(name, wins.sum(), draws.sum(), losses.sum(), timeLosses.sum(),
+                    nodes.sum(), searchMillis.sum());
+        }
+    }
+}
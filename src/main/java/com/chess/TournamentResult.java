@@ -0,0 +1,50 @@
+package com.chess;
+
+import java.util.Locale;
+
+/**
+ * 兩個引擎設定對戰的結果：雙方戰績、Elo 差距與耗時
+ */
+public record TournamentResult(EngineScore first, EngineScore second, long elapsedMillis) {
+
+    public long games() {
+        return first.games();
+    }
+
+    /**
+     * 以 first 的得分率換算對 second 的 Elo 差距：-400 · log10(1 / score - 1)
+     * 全勝或全敗時為正負無限大
+     */
+    public double eloDifference() {
+        return elo(first.score());
+    }
+
+    public static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * 可讀的摘要：每個引擎設定一行勝/和/負、超時、得分率、Elo 與平均 NPS
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%d games in %.1f s%n", games(), elapsedMillis / 1000.0));
+        builder.append(String.format(Locale.ROOT, "%-16s %6s %6s %6s %6s %7s %8s %10s%n",
+                "Engine", "W", "D", "L", "Time", "Score", "Elo", "NPS"));
+        appendRow(builder, first, eloDifference());
+        appendRow(builder, second, -eloDifference());
+        return builder.toString();
+    }
+
+    private static void appendRow(StringBuilder builder, EngineScore score, double elo) {
+        builder.append(String.format(Locale.ROOT, "%-16s %6d %6d %6d %6d %6.1f%% %+8.1f %10d%n",
+                score.name(), score.wins(), score.draws(), score.losses(), score.timeLosses(),
+                score.score() * 100, elo, score.averageNodesPerSecond()));
+    }
+}
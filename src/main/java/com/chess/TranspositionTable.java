@@ -0,0 +1,199 @@
+package com.chess;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 以 Zobrist 雜湊為鍵的固定大小置換表
+ * 全部資料存在單一 long[] 中，不配置任何 entry 物件：
+ * - 每個 bucket 兩個 slot：slot 0 保留較深的結果（depth-preferred），slot 1 一律覆寫（always-replace）
+ * - 每個 slot 兩個 long：(key ^ data, data)，讀取時以 XOR 驗證，
+ *   多個搜尋執行緒同時讀寫時，被撕裂的 slot 只會被視為未命中，因此不需要任何同步
+ * 存入的 data 以 probe 回傳，再以 move/depth/score/bound 等靜態方法解碼
+ */
+public final class TranspositionTable {
+
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    // probe 未命中時回傳的值（有效資料的 bound 不為 0，因此 data 必不為 0）
+    public static final long MISS = 0L;
+
+    // 分數以 16-bit 有號整數保存，超出範圍的分數存入時截到 ±MAX_SCORE
+    public static final int MAX_SCORE = Short.MAX_VALUE;
+
+    private static final int BYTES_PER_SLOT = 2 * Long.BYTES;
+    private static final int SLOTS_PER_BUCKET = 2;
+    private static final int LONGS_PER_BUCKET = SLOTS_PER_BUCKET * 2;
+
+    // data 打包：move 18 bit | depth 8 bit | score 16 bit（有號） | bound 2 bit | generation 8 bit
+    private static final int MOVE_BITS = 18;
+    private static final int DEPTH_SHIFT = MOVE_BITS;
+    private static final int SCORE_SHIFT = DEPTH_SHIFT + 8;
+    private static final int BOUND_SHIFT = SCORE_SHIFT + 16;
+    private static final int GENERATION_SHIFT = BOUND_SHIFT + 2;
+    private static final int MAX_DEPTH = 0xFF;
+
+    // opaque 存取保證每個 long 的讀寫為原子操作，但不加入記憶體屏障
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] table;
+    private final long bucketMask;
+    private int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder overwrites = new LongAdder();
+
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb <= 0) {
+            throw new IllegalArgumentException("Transposition table size must be positive, got: " + sizeMb + " MB");
+        }
+        long slots = (long) sizeMb * 1024 * 1024 / BYTES_PER_SLOT;
+        long buckets = Long.highestOneBit(Math.max(1, slots / SLOTS_PER_BUCKET));
+        // 單一 long[] 最多約 2^31 個元素
+        buckets = Math.min(buckets, 1L << 28);
+        this.table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        this.bucketMask = buckets - 1;
+        this.generation = 0;
+    }
+
+    /**
+     * 查詢局面；命中時回傳打包的 data，否則回傳 MISS
+     */
+    public long probe(long key) {
+        int base = bucketIndex(key);
+        for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+            int index = base + slot * 2;
+            long data = (long) SLOTS.getOpaque(table, index + 1);
+            long checkedKey = (long) SLOTS.getOpaque(table, index);
+            if (data != MISS && (checkedKey ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    /**
+     * 存入搜尋結果；score 超出 ±MAX_SCORE 時截到邊界，避免解碼時溢位變號
+     */
+    public void store(long key, int move, int depth, int score, int bound) {
+        int base = bucketIndex(key);
+        long preferredData = (long) SLOTS.getOpaque(table, base + 1);
+        long preferredKey = (long) SLOTS.getOpaque(table, base) ^ preferredData;
+        long replacedData = (long) SLOTS.getOpaque(table, base + 3);
+        long replacedKey = (long) SLOTS.getOpaque(table, base + 2) ^ replacedData;
+
+        // 同一局面沒有新走法時保留原本的最佳走法
+        if (move == Move.NONE) {
+            if (preferredData != MISS && preferredKey == key) {
+                move = move(preferredData);
+            } else if (replacedData != MISS && replacedKey == key) {
+                move = move(replacedData);
+            }
+        }
+        long data = pack(move, depth, score, bound, generation);
+
+        boolean preferredIsStale = preferredData == MISS
+                || preferredKey == key
+                || generation(preferredData) != generation
+                || depth >= depth(preferredData);
+        if (preferredIsStale) {
+            write(base, key, data, preferredData, preferredKey);
+        } else {
+            write(base + 2, key, data, replacedData, replacedKey);
+        }
+    }
+
+    /**
+     * 新的一次搜尋開始時呼叫：舊世代的資料在 depth-preferred slot 中可被直接取代
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            SLOTS.setOpaque(table, i, 0L);
+        }
+        generation = 0;
+        hits.reset();
+        misses.reset();
+        overwrites.reset();
+    }
+
+    /**
+     * 以千分比表示目前世代資料佔用的比例（取樣前 1000 個 slot）
+     */
+    public int hashfull() {
+        int sampleSlots = Math.min(1000, table.length / 2);
+        int used = 0;
+        for (int slot = 0; slot < sampleSlots; slot++) {
+            long data = (long) SLOTS.getOpaque(table, slot * 2 + 1);
+            if (data != MISS && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sampleSlots;
+    }
+
+    public long capacity() {
+        return table.length / 2;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long overwrites() {
+        return overwrites.sum();
+    }
+
+    public static int move(long data) {
+        return (int) (data & ((1 << MOVE_BITS) - 1));
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & MAX_DEPTH);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+
+    private static long pack(int move, int depth, int score, int bound, int generation) {
+        return (move & ((1L << MOVE_BITS) - 1))
+                | ((long) Math.min(Math.max(depth, 0), MAX_DEPTH) << DEPTH_SHIFT)
+                | (((long) Math.max(-MAX_SCORE, Math.min(score, MAX_SCORE)) & 0xFFFF) << SCORE_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+    }
+
+    private void write(int index, long key, long data, long previousData, long previousKey) {
+        if (previousData != MISS && previousKey != key) {
+            overwrites.increment();
+        }
+        SLOTS.setOpaque(table, index, key ^ data);
+        SLOTS.setOpaque(table, index + 1, data);
+    }
+
+    private int bucketIndex(long key) {
+        return (int) (key & bucketMask) * LONGS_PER_BUCKET;
+    }
+}
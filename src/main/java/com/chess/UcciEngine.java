@@ -0,0 +1,341 @@
+package com.chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * UCCI 協定前端：由標準輸入讀取指令、在標準輸出回應，讓圖形介面或分析叢集以獨立程序執行引擎
+ * - position：與上一次的局面比對，起始局面相同時只還原或補走差異的走法，不重播整串走法
+ * - position 中第一個不合法（含不是走棋方、對局已結束）的走法以 info string 回報，局面停在它之前
+ * - go depth / nodes / time（剩餘毫秒，依 movestogo 或 DEFAULT_MOVES_TO_GO 分配，加上 increment）/ infinite
+ * - 搜尋在獨立執行緒進行，stop 隨時中止並回報 bestmove；每完成一層輸出 info（depth、score、nodes、nps、hashfull、pv）
+ * - 搜尋失敗時以 info string 回報原因並送出 nobestmove，引擎繼續讀取指令
+ * - 置換表在第一次 go 時才配置，啟動後即可回應 ucci 與 isready
+ * 未支援的指令（banmoves、ponderhit、probe 等）直接略過
+ */
+public final class UcciEngine {
+
+    public static final String NAME = "Chinese Chess";
+    public static final int DEFAULT_HASH_MB = 16;
+    public static final int MAX_HASH_MB = 1024;
+    public static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private static final String START_POSITION = "startpos";
+
+    private final PrintStream out;
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ucci-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 以下欄位只在沒有搜尋進行時由指令執行緒修改
+    private final ChineseChessService position = new ChineseChessService();
+    private String positionBase = START_POSITION;
+    private int[] playedMoves = new int[0];
+    private int hashMb = DEFAULT_HASH_MB;
+    private TranspositionTable transpositionTable;
+    private SearchEngine engine;
+
+    private Future<?> search;
+    private CountDownLatch stopSignal = new CountDownLatch(0);
+
+    public UcciEngine(PrintStream out) {
+        this.out = out;
+        position.setupInitialPosition();
+    }
+
+    public static void main(String[] args) throws IOException {
+        UcciEngine engine = new UcciEngine(System.out);
+        engine.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * 逐行處理指令，直到 quit 或輸入結束
+     */
+    public void run(BufferedReader in) throws IOException {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    if (!handle(line)) {
+                        break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // 格式錯誤的指令不中止引擎，只回報原因
+                    send("info string " + e.getMessage());
+                }
+            }
+        } finally {
+            stopSearch();
+            searchThread.shutdownNow();
+        }
+    }
+
+    /**
+     * 處理一行指令；收到 quit 時回傳 false
+     */
+    public boolean handle(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "ucci" -> {
+                send("id name " + NAME);
+                send("option hashsize type spin min 1 max " + MAX_HASH_MB + " default " + DEFAULT_HASH_MB);
+                send("ucciok");
+            }
+            case "isready" -> send("readyok");
+            case "setoption" -> setOption(tokens);
+            case "position" -> {
+                stopSearch();
+                setPosition(line.trim());
+            }
+            case "go" -> {
+                stopSearch();
+                go(tokens);
+            }
+            case "stop" -> stopSearch();
+            case "quit" -> {
+                stopSearch();
+                send("bye");
+                return false;
+            }
+            default -> {
+                // 未支援的指令依協定略過
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 目前局面的 FEN（診斷用）
+     */
+    public String fen() {
+        return Fen.toFen(position);
+    }
+
+    private void setOption(String[] tokens) {
+        if (tokens.length == 3 && tokens[1].equals("hashsize")) {
+            int size = Integer.parseInt(tokens[2]);
+            if (size < 1 || size > MAX_HASH_MB) {
+                throw new IllegalArgumentException("Hash size out of range: " + size + " MB");
+            }
+            stopSearch();
+            hashMb = size;
+            transpositionTable = null;
+            engine = null;
+        }
+    }
+
+    /**
+     * position {fen <FEN> | startpos} [moves <m1> <m2> ...]
+     * 起始局面與上一次相同時，先還原到兩串走法的共同前綴，再補走新的走法
+     * 格式錯誤、不是走棋方或不合法的走法之後的走法都不走，並以 info string 回報該走法
+     */
+    private void setPosition(String line) {
+        String[] words = line.trim().split("\\s+");
+        int movesIndex = Arrays.asList(words).indexOf("moves");
+        int baseEnd = movesIndex < 0 ? words.length : movesIndex;
+        String base = String.join(" ", Arrays.copyOfRange(words, 1, baseEnd));
+        // 結尾只有 moves 而沒有走法時為空的走法串
+        String[] tokens = movesIndex < 0 ? new String[0] : Arrays.copyOfRange(words, movesIndex + 1, words.length);
+        int[] moves = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            moves[i] = Iccs.parse(tokens[i]);
+        }
+
+        int common = 0;
+        if (base.equals(positionBase)) {
+            while (common < playedMoves.length && common < moves.length && playedMoves[common] == moves[common]) {
+                common++;
+            }
+            for (int i = playedMoves.length; i > common; i--) {
+                position.unmakeMove();
+            }
+        } else {
+            // 載入失敗時下一次 position 必須重新載入
+            positionBase = null;
+            playedMoves = new int[0];
+            if (base.equals(START_POSITION)) {
+                position.setupInitialPosition();
+            } else if (base.startsWith("fen ")) {
+                Fen.load(position, base.substring("fen ".length()).trim());
+            } else {
+                throw new IllegalArgumentException("Invalid position: " + line);
+            }
+            positionBase = base;
+        }
+
+        int played = common;
+        while (played < moves.length && moves[played] != Iccs.INVALID && position.playTurn(moves[played])) {
+            played++;
+        }
+        playedMoves = Arrays.copyOf(moves, played);
+        if (played < moves.length) {
+            // 保留合法的前綴，並回報第一個被拒絕的走法
+            send("info string Illegal move: " + tokens[played]);
+        }
+    }
+
+    /**
+     * go [depth N] [nodes N] [time T [movestogo N] [increment I]] [infinite]
+     */
+    private void go(String[] tokens) {
+        int depth = SearchLimits.infinite().maxDepth();
+        long nodes = SearchLimits.UNLIMITED;
+        long time = SearchLimits.UNLIMITED;
+        long movesToGo = DEFAULT_MOVES_TO_GO;
+        long increment = 0;
+        boolean infinite = true;
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "depth" -> {
+                    depth = (int) number(tokens, ++i);
+                    infinite = false;
+                }
+                case "nodes" -> {
+                    nodes = number(tokens, ++i);
+                    infinite = false;
+                }
+                case "time" -> {
+                    time = number(tokens, ++i);
+                    infinite = false;
+                }
+                case "movestogo" -> movesToGo = Math.max(1, number(tokens, ++i));
+                case "increment" -> increment = number(tokens, ++i);
+                case "opptime", "oppmovestogo", "oppincrement" -> i++;
+                default -> {
+                    // ponder、draw、infinite 不影響搜尋上限
+                }
+            }
+        }
+        long moveTime = time == SearchLimits.UNLIMITED ? time : Math.max(1, time / movesToGo + increment);
+        SearchLimits limits = new SearchLimits(Math.max(1, depth), moveTime, Math.max(1, nodes));
+
+        SearchEngine searchEngine = engine();
+        CountDownLatch stop = new CountDownLatch(1);
+        boolean waitForStop = infinite;
+        stopSignal = stop;
+        // 在指令執行緒上重設停止旗標：搜尋執行緒開始前收到的 stop 不會被覆蓋
+        searchEngine.resetStop();
+        transpositionTable.newSearch();
+        // 在副本上搜尋：搜尋中途失敗時目前局面不會停在試走到一半的狀態
+        ChineseChessService board = position.copy();
+        search = searchThread.submit(() -> {
+            SearchResult result = null;
+            try {
+                result = searchEngine.run(board, limits, 0);
+            } catch (RuntimeException e) {
+                // 搜尋失敗不中止引擎：回報原因並以 nobestmove 結束這次 go
+                send("info string Search failed: " + e);
+            }
+            if (waitForStop) {
+                // infinite 模式在收到 stop 之前不可送出 bestmove
+                awaitUninterruptibly(stop);
+            }
+            if (result == null) {
+                send("nobestmove");
+            } else {
+                sendBestMove(result);
+            }
+        });
+    }
+
+    private SearchEngine engine() {
+        if (engine == null) {
+            transpositionTable = new TranspositionTable(hashMb);
+            engine = new SearchEngine(transpositionTable);
+            engine.setProgressListener(this::sendInfo);
+        }
+        return engine;
+    }
+
+    /**
+     * 要求進行中的搜尋停止並等待它送出 bestmove
+     */
+    private void stopSearch() {
+        if (search == null) {
+            return;
+        }
+        engine.stop();
+        stopSignal.countDown();
+        try {
+            search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        } finally {
+            search = null;
+        }
+    }
+
+    private void sendInfo(SearchResult result) {
+        StringBuilder line = new StringBuilder(128)
+                .append("info depth ").append(result.depth())
+                .append(" score ").append(result.score())
+                .append(" time ").append(result.elapsedMillis())
+                .append(" nodes ").append(result.nodes())
+                .append(" nps ").append(result.nodesPerSecond())
+                .append(" hashfull ").append(transpositionTable.hashfull())
+                .append(" pv");
+        for (int move : result.principalVariation()) {
+            Iccs.append(line.append(' '), move);
+        }
+        send(line.toString());
+    }
+
+    private void sendBestMove(SearchResult result) {
+        if (result.bestMove() == Move.NONE) {
+            send("nobestmove");
+            return;
+        }
+        StringBuilder line = Iccs.append(new StringBuilder("bestmove "), result.bestMove());
+        int[] pv = result.principalVariation();
+        if (pv.length > 1) {
+            Iccs.append(line.append(" ponder "), pv[1]);
+        }
+        send(line.toString());
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private static long number(String[] tokens, int index) {
+        if (index >= tokens.length) {
+            throw new IllegalArgumentException("Missing value after " + tokens[index - 1]);
+        }
+        try {
+            return Long.parseLong(tokens[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + tokens[index]);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
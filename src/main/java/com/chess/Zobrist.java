@@ -0,0 +1,38 @@
+package com.chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist 雜湊鍵
+ * 每個 (PieceCode, Square) 一個隨機 64-bit 鍵，另有一個「黑方走棋」鍵
+ * 以固定種子產生，因此同一局面在不同 JVM、不同版本間得到相同的雜湊值
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5A0B_C0DE_1234_5678L;
+
+    // index = pieceCode * 90 + square
+    private static final long[] PIECE_SQUARE_KEYS = new long[PieceCode.COUNT * Square.COUNT];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        // PieceCode.EMPTY 保持 0，空格不影響雜湊
+        for (int i = Square.COUNT; i < PIECE_SQUARE_KEYS.length; i++) {
+            PIECE_SQUARE_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+        // Utility class - prevent instantiation
+    }
+
+    public static long pieceKey(int pieceCode, int square) {
+        return PIECE_SQUARE_KEYS[pieceCode * Square.COUNT + square];
+    }
+
+    public static long sideKey(Color sideToMove) {
+        return sideToMove == Color.BLACK ? BLACK_TO_MOVE_KEY : 0L;
+    }
+}
@@ -1,14 +1,67 @@
 package com.chess.steps;
 
+import com.chess.BatchMoveValidator;
 import com.chess.ChineseChessService;
+import com.chess.EngineConfig;
+import com.chess.EngineScore;
+import com.chess.Color;
+import com.chess.Evaluation;
+import com.chess.EvaluationWeights;
+import com.chess.Fen;
+import com.chess.GameRegistry;
+import com.chess.GameReplay;
+import com.chess.GameState;
+import com.chess.Iccs;
+import com.chess.Move;
+import com.chess.MoveOrderer;
+import com.chess.OpeningBook;
+import com.chess.OpeningBookBuilder;
+import com.chess.ParallelSearch;
+import com.chess.Perft;
+import com.chess.PositionCodec;
+import com.chess.Piece;
+import com.chess.ReplayFailure;
+import com.chess.ReplayResult;
+import com.chess.RepetitionStatus;
+import com.chess.SearchEngine;
+import com.chess.SearchLimits;
+import com.chess.SearchResult;
+import com.chess.Square;
+import com.chess.Tablebase;
+import com.chess.Tablebases;
+import com.chess.Tournament;
+import com.chess.TournamentResult;
+import com.chess.UcciEngine;
+import com.chess.TranspositionTable;
 import io.cucumber.datatable.DataTable;
+import io.cucumber.java.After;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.When;
 import io.cucumber.java.en.Then;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+import static com.chess.ChessConstants.MAX_MOVES;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ChineseChessSteps {
@@ -16,6 +69,24 @@ public class ChineseChessSteps {
     private ChineseChessService chessService;
     private boolean moveResult;
     private boolean gameResult;
+    private SearchResult searchResult;
+    private String archive;
+    private ReplayResult replayResult;
+    private OpeningBook openingBook;
+    private Tablebases tablebases;
+    private List<Integer> orderedMoves;
+    private GameRegistry gameRegistry;
+    private List<Long> registeredGames;
+    private boolean submittedMoveResult;
+    private int evictedGames;
+    private BitSet batchResult;
+    private List<GameState> snapshots;
+    private List<GameState> fullCaptures;
+    private TournamentResult tournamentResult;
+    private UcciEngine ucciEngine;
+    private ByteArrayOutputStream ucciOutput;
+    private TranspositionTable transpositionTable;
+    private int ucciRepliesSeen;
     
     public ChineseChessSteps() {
         this.chessService = new ChineseChessService();
@@ -155,4 +226,895 @@ public class ChineseChessSteps {
     public void the_game_is_not_over_just_from_that_capture() {
         assertFalse(chessService.isGameOver());
     }
-} 
\ No newline at end of file
+
+    @Given("the initial position")
+    public void the_initial_position() {
+        chessService.setupInitialPosition();
+    }
+    
+    @Given("the position {string}")
+    public void the_position(String fen) {
+        Fen.load(chessService, fen);
+    }
+    
+    @Then("the FEN is {string}")
+    public void the_fen_is(String fen) {
+        assertEquals(fen, Fen.toFen(chessService));
+    }
+    
+    @Then("the position is the initial position")
+    public void the_position_is_the_initial_position() {
+        ChineseChessService initial = new ChineseChessService();
+        initial.setupInitialPosition();
+        assertEquals(initial.positionHash(), chessService.positionHash());
+    }
+    
+    @Then("the FEN {string} is rejected")
+    public void the_fen_is_rejected(String fen) {
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse(fen));
+    }
+    
+    @Then("the position encodes to {int} bytes and decodes to the same position")
+    public void the_position_encodes_and_decodes(int bytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(PositionCodec.BYTES * 2);
+        buffer.position(PositionCodec.BYTES);
+        PositionCodec.encode(chessService, buffer);
+        assertEquals(bytes, buffer.position() - PositionCodec.BYTES);
+        
+        ChineseChessService decoded = new ChineseChessService();
+        buffer.position(PositionCodec.BYTES);
+        PositionCodec.decode(buffer, decoded);
+        assertEquals(PositionCodec.BYTES * 2, buffer.position());
+        assertEquals(chessService.positionHash(), decoded.positionHash());
+        assertEquals(Fen.toFen(chessService), Fen.toFen(decoded));
+    }
+    
+    @Then("perft to depth {int} counts {long} leaf nodes")
+    public void perft_to_depth_counts_leaf_nodes(int depth, long expectedNodes) {
+        long hashBefore = chessService.positionHash();
+        assertEquals(expectedNodes, Perft.perft(chessService, depth));
+        assertEquals(hashBefore, chessService.positionHash(), "Perft must restore the board");
+    }
+    
+    @Then("perft to depth {int} matches brute-force move validation")
+    public void perft_matches_brute_force_move_validation(int depth) {
+        assertEquals(bruteForcePerft(depth), Perft.perft(chessService, depth));
+    }
+    
+    /**
+     * 以單步驗證窮舉所有 (from, to) 組合計算葉節點數，作為走法產生器的對照組
+     */
+    private long bruteForcePerft(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        Color side = chessService.sideToMove();
+        long nodes = 0;
+        for (int from = 0; from < Square.COUNT; from++) {
+            Piece piece = chessService.getPiece(Square.row(from), Square.col(from));
+            if (piece == null || piece.color() != side) {
+                continue;
+            }
+            for (int to = 0; to < Square.COUNT; to++) {
+                if (chessService.move(Move.of(from, to))) {
+                    nodes += bruteForcePerft(depth - 1);
+                    chessService.unmakeMove();
+                }
+            }
+        }
+        return nodes;
+    }
+
+    @Then("{word} is in check")
+    public void side_is_in_check(String color) {
+        assertTrue(chessService.isInCheck(Color.fromString(color)));
+    }
+    
+    @Then("{word} is not in check")
+    public void side_is_not_in_check(String color) {
+        assertFalse(chessService.isInCheck(Color.fromString(color)));
+    }
+    
+    @Then("{word} is checkmated")
+    public void side_is_checkmated(String color) {
+        assertTrue(chessService.isCheckmate(Color.fromString(color)));
+        assertFalse(chessService.isStalemate(Color.fromString(color)));
+    }
+    
+    @Then("{word} is stalemated")
+    public void side_is_stalemated(String color) {
+        assertTrue(chessService.isStalemate(Color.fromString(color)));
+        assertFalse(chessService.isCheckmate(Color.fromString(color)));
+    }
+    
+    @Then("{word} has {int} legal moves")
+    public void side_has_legal_moves(String color, int expectedCount) {
+        int[] moves = new int[MAX_MOVES];
+        assertEquals(expectedCount, chessService.generateLegalMoves(Color.fromString(color), moves));
+    }
+
+    @Then("every generated move for {word} is accepted by the move validator and nothing else is")
+    public void generated_moves_match_the_move_validator(String color) {
+        Color side = Color.fromString(color);
+        int[] moves = new int[MAX_MOVES];
+        int count = chessService.generateLegalMoves(side, moves);
+        
+        int accepted = 0;
+        for (int from = 0; from < Square.COUNT; from++) {
+            Piece piece = chessService.getPiece(Square.row(from), Square.col(from));
+            if (piece == null || piece.color() != side) {
+                continue;
+            }
+            for (int to = 0; to < Square.COUNT; to++) {
+                if (chessService.move(Move.of(from, to))) {
+                    accepted++;
+                    chessService.unmakeMove();
+                }
+            }
+        }
+        assertEquals(count, accepted);
+    }
+    
+    @Then("making and unmaking every legal move for {word} restores the board")
+    public void making_and_unmaking_every_legal_move_restores_the_board(String color) {
+        Piece[] before = snapshotBoard();
+        int[] moves = new int[MAX_MOVES];
+        int count = chessService.generateLegalMoves(Color.fromString(color), moves);
+        for (int i = 0; i < count; i++) {
+            chessService.makeMove(moves[i]);
+            chessService.unmakeMove();
+        }
+        assertArrayEquals(before, snapshotBoard());
+        assertEquals(0, chessService.ply());
+    }
+    
+    private Piece[] snapshotBoard() {
+        Piece[] pieces = new Piece[Square.COUNT];
+        for (int square = 0; square < Square.COUNT; square++) {
+            pieces[square] = chessService.getPiece(Square.row(square), Square.col(square));
+        }
+        return pieces;
+    }
+
+    @Then("the moves {string} and {string} reach the same position hash")
+    public void the_moves_reach_the_same_position_hash(String firstLine, String secondLine) {
+        long startHash = chessService.positionHash();
+        long firstHash = playAndUnmake(firstLine, startHash);
+        long secondHash = playAndUnmake(secondLine, startHash);
+        assertEquals(firstHash, secondHash);
+        assertNotEquals(startHash, firstHash);
+    }
+    
+    /**
+     * 依序走完以空白分隔的 "(row,col)-(row,col)" 走法，回傳最終雜湊，並確認悔棋後雜湊還原
+     */
+    private long playAndUnmake(String line, long startHash) {
+        int played = playMoves(line);
+        long endHash = chessService.positionHash();
+        for (int i = 0; i < played; i++) {
+            chessService.unmakeMove();
+        }
+        assertEquals(startHash, chessService.positionHash());
+        return endHash;
+    }
+    
+    /**
+     * 依序走完以空白分隔的 "(row,col)-(row,col)" 走法，每一步都必須合法；回傳走的步數
+     */
+    private int playMoves(String line) {
+        String[] moves = line.trim().split(" ");
+        for (String move : moves) {
+            assertTrue(chessService.move(parseMove(move)), "Move should be legal: " + move);
+        }
+        return moves.length;
+    }
+    
+    /**
+     * 解析 "(row,col)-(row,col)" 為不含 PieceCode 的走法
+     */
+    private static int parseMove(String move) {
+        String[] squares = move.replaceAll("[()]", "").split("-");
+        String[] from = squares[0].split(",");
+        String[] to = squares[1].split(",");
+        int fromSquare = Square.of(Integer.parseInt(from[0].trim()), Integer.parseInt(from[1].trim()));
+        int toSquare = Square.of(Integer.parseInt(to[0].trim()), Integer.parseInt(to[1].trim()));
+        return Move.of(fromSquare, toSquare);
+    }
+    
+    /**
+     * 在合法走法中找出起點與終點相同的走法（含 PieceCode）
+     */
+    private static int findMove(int[] moves, int count, String text) {
+        int move = parseMove(text);
+        for (int i = 0; i < count; i++) {
+            if (Move.from(moves[i]) == Move.from(move) && Move.to(moves[i]) == Move.to(move)) {
+                return moves[i];
+            }
+        }
+        fail("Not a legal move: " + text);
+        return Move.NONE;
+    }
+    
+    @When("the moves {string} are played")
+    public void the_moves_are_played(String line) {
+        playMoves(line);
+    }
+    
+    @Then("the game is not over")
+    public void the_game_is_not_over() {
+        assertFalse(chessService.isGameOver());
+    }
+    
+    @Then("the game is drawn by repetition")
+    public void the_game_is_drawn_by_repetition() {
+        assertTrue(chessService.isGameOver());
+        assertNull(chessService.getWinner());
+        assertEquals(RepetitionStatus.DRAW, chessService.repetitionStatus());
+    }
+    
+    @Then("{word} wins because {word} made a perpetual {word}")
+    public void side_wins_because_of_perpetual(String winner, String offender, String kind) {
+        RepetitionStatus expected = RepetitionStatus.valueOf(
+                offender.toUpperCase() + "_PERPETUAL_" + kind.toUpperCase());
+        assertEquals(expected, chessService.repetitionStatus());
+        assertTrue(chessService.isGameOver());
+        assertEquals(winner, chessService.getWinner());
+    }
+
+    @When("{word} searches to depth {int}")
+    public void side_searches_to_depth(String color, int depth) {
+        chessService.setSideToMove(Color.fromString(color));
+        SearchEngine engine = new SearchEngine(new TranspositionTable(1));
+        searchResult = engine.search(chessService, SearchLimits.depth(depth));
+    }
+    
+    @When("{word} searches to depth {int} with {int} threads")
+    public void side_searches_to_depth_with_threads(String color, int depth, int threads) {
+        chessService.setSideToMove(Color.fromString(color));
+        long hashBefore = chessService.positionHash();
+        try (ParallelSearch search = new ParallelSearch(new TranspositionTable(1), threads)) {
+            searchResult = search.search(chessService, SearchLimits.depth(depth));
+        }
+        assertEquals(hashBefore, chessService.positionHash(), "Parallel search must not modify the board");
+    }
+    
+    @Then("the best move is from \\({int}, {int}\\) to \\({int}, {int}\\)")
+    public void the_best_move_is_from_to(int fromRow, int fromCol, int toRow, int toCol) {
+        assertEquals(Square.of(fromRow, fromCol), Move.from(searchResult.bestMove()));
+        assertEquals(Square.of(toRow, toCol), Move.to(searchResult.bestMove()));
+    }
+    
+    @Then("the search reports a winning mate score")
+    public void the_search_reports_a_winning_mate_score() {
+        assertTrue(searchResult.isMateScore() && searchResult.score() > 0,
+                "Expected a mate score but got " + searchResult.score());
+    }
+    
+    @Then("the ICCS move {string} goes from \\({int}, {int}\\) to \\({int}, {int}\\)")
+    public void the_iccs_move_goes_from_to(String text, int fromRow, int fromCol, int toRow, int toCol) {
+        int move = Iccs.parse(text);
+        assertEquals(Square.of(fromRow, fromCol), Move.from(move));
+        assertEquals(Square.of(toRow, toCol), Move.to(move));
+        assertEquals(text.toLowerCase(), Iccs.format(move));
+    }
+    
+    @Given("the game archive:")
+    public void the_game_archive(String content) {
+        archive = content;
+    }
+    
+    @When("the archive is replayed with {int} threads in segments of {int} bytes")
+    public void the_archive_is_replayed(int threads, int segmentBytes) throws IOException {
+        Path file = Files.createTempFile("games", ".iccs");
+        try {
+            Files.writeString(file, archive + "\n", StandardCharsets.US_ASCII);
+            replayResult = new GameReplay(threads, segmentBytes).replay(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Then("{long} games with {long} legal moves are replayed")
+    public void games_with_legal_moves_are_replayed(long games, long moves) {
+        assertEquals(games, replayResult.games());
+        assertEquals(moves, replayResult.moves());
+    }
+    
+    @Then("the first illegal plies are:")
+    public void the_first_illegal_plies_are(DataTable dataTable) {
+        List<Map<String, String>> rows = dataTable.asMaps();
+        List<ReplayFailure> failures = replayResult.failures();
+        assertEquals(rows.size(), failures.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ReplayFailure failure = failures.get(i);
+            // offset 換算成行號（由 1 起算）
+            int line = (int) archive.substring(0, (int) failure.offset()).chars().filter(c -> c == '\n').count() + 1;
+            assertEquals(Integer.parseInt(rows.get(i).get("Line")), line);
+            assertEquals(Integer.parseInt(rows.get(i).get("Ply")), failure.ply());
+            assertEquals(rows.get(i).get("Move"), failure.move());
+        }
+    }
+    
+    @When("an opening book of up to {int} plies is built from the archive")
+    public void an_opening_book_is_built_from_the_archive(int maxPly) throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+        for (String line : archive.split("\n")) {
+            if (!line.isBlank()) {
+                builder.addGame(line);
+            }
+        }
+        Path book = Files.createTempFile("opening", ".book");
+        book.toFile().deleteOnExit();
+        builder.write(book);
+        openingBook = OpeningBook.open(book);
+    }
+    
+    @Then("the opening book has {int} entries")
+    public void the_opening_book_has_entries(int entries) {
+        assertEquals(entries, openingBook.size());
+    }
+    
+    @Then("the opening book lists after {string}:")
+    public void the_opening_book_lists_after(String line, DataTable dataTable) {
+        int[] moves = new int[MAX_MOVES];
+        int[] weights = new int[MAX_MOVES];
+        int count = openingBook.moves(positionAfter(line), moves, weights);
+        
+        Map<String, Integer> actual = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            actual.put(Iccs.format(moves[i]), weights[i]);
+        }
+        Map<String, Integer> expected = new HashMap<>();
+        for (Map<String, String> row : dataTable.asMaps()) {
+            expected.put(row.get("Move"), Integer.parseInt(row.get("Weight")));
+        }
+        assertEquals(expected, actual);
+    }
+    
+    @Then("{int} threads probing the opening book after {string} all choose {string}")
+    public void threads_probing_the_opening_book_all_choose(int threads, String line, String expected)
+            throws Exception {
+        long hash = positionAfter(line);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads * 100; i++) {
+                results.add(pool.submit(() -> openingBook.bestMove(hash)));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(expected, Iccs.format(result.get()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Given("tablebases for {string} are generated with {int} threads")
+    public void tablebases_are_generated(String signature, int threads) {
+        tablebases = new Tablebases();
+        tablebases.generate(signature, threads);
+    }
+    
+    @Then("the tablebases hold {int} tables")
+    public void the_tablebases_hold_tables(int tables) {
+        assertEquals(tables, tablebases.size());
+    }
+    
+    @Then("the tablebase scores the position as a win in {int} plies")
+    public void the_tablebase_scores_a_win(int plies) {
+        int result = tablebases.probe(chessService);
+        assertEquals(Tablebase.WIN, Tablebase.wdl(result));
+        assertEquals(plies, Tablebase.dtm(result));
+    }
+    
+    @Then("the tablebase scores the position as a loss in {int} plies")
+    public void the_tablebase_scores_a_loss(int plies) {
+        int result = tablebases.probe(chessService);
+        assertEquals(Tablebase.LOSS, Tablebase.wdl(result));
+        assertEquals(plies, Tablebase.dtm(result));
+    }
+    
+    @Then("the tablebase scores the position as a draw")
+    public void the_tablebase_scores_a_draw() {
+        assertEquals(Tablebase.DRAW, Tablebase.wdl(tablebases.probe(chessService)));
+    }
+    
+    @Then("the tablebases saved to disk and loaded again agree on every position")
+    public void the_tablebases_round_trip() throws IOException {
+        Path directory = Files.createTempDirectory("tablebases");
+        try {
+            tablebases.save(directory);
+            Tablebases loaded = new Tablebases();
+            assertEquals(tablebases.size(), loaded.load(directory));
+            for (String signature : new String[]{"KHk", "Kk"}) {
+                Tablebase expected = tablebases.get(signature);
+                Tablebase actual = loaded.get(signature);
+                assertEquals(expected.size(), actual.size());
+                for (int index = 0; index < expected.size(); index++) {
+                    assertEquals(expected.result(index), actual.result(index), signature + " index " + index);
+                }
+            }
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+    
+    @When("{word} searches to depth {int} with the tablebases")
+    public void side_searches_with_the_tablebases(String color, int depth) {
+        chessService.setSideToMove(Color.fromString(color));
+        SearchEngine engine = new SearchEngine(new TranspositionTable(1));
+        engine.setTablebases(tablebases);
+        searchResult = engine.search(chessService, SearchLimits.depth(depth));
+    }
+    
+    @Then("the evaluation is {int}")
+    public void the_evaluation_is(int score) {
+        assertEquals(score, Evaluation.evaluate(chessService));
+    }
+    
+    @Then("the incremental evaluation matches the position rebuilt from its FEN")
+    public void the_incremental_evaluation_matches_a_rebuilt_position() {
+        ChineseChessService rebuilt = Fen.parse(Fen.toFen(chessService));
+        rebuilt.setEvaluationWeights(chessService.evaluationWeights());
+        assertEquals(rebuilt.pieceSquareScore(), chessService.pieceSquareScore());
+        assertEquals(Evaluation.evaluate(rebuilt), Evaluation.evaluate(chessService));
+    }
+    
+    @When("every move is taken back")
+    public void every_move_is_taken_back() {
+        while (chessService.ply() > 0) {
+            chessService.unmakeMove();
+        }
+    }
+    
+    @When("evaluation weights are loaded from:")
+    public void evaluation_weights_are_loaded_from(String content) throws IOException {
+        Path file = Files.createTempFile("evaluation", ".weights");
+        try {
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+            chessService.setEvaluationWeights(EvaluationWeights.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Then("evaluation weights are rejected:")
+    public void evaluation_weights_are_rejected(String content) {
+        assertThrows(IllegalArgumentException.class, () -> EvaluationWeights.parse(content.lines().toList()));
+    }
+    
+    @When("{word}'s moves are ordered with hash move {string} and killer {string}")
+    public void moves_are_ordered(String color, String hashMoveText, String killerText) {
+        int[] moves = new int[MAX_MOVES];
+        int[] scores = new int[MAX_MOVES];
+        int count = chessService.generateLegalMoves(Color.fromString(color), moves);
+        int hashMove = findMove(moves, count, hashMoveText);
+        MoveOrderer orderer = new MoveOrderer();
+        orderer.clear();
+        orderer.recordCutoff(findMove(moves, count, killerText), 1, 0);
+        orderer.score(chessService, moves, scores, count, hashMove, 0);
+        orderedMoves = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orderedMoves.add(MoveOrderer.next(moves, scores, i, count));
+        }
+    }
+    
+    @Then("the first moves are {string}")
+    public void the_first_moves_are(String line) {
+        String[] expected = line.trim().split(" ");
+        for (int i = 0; i < expected.length; i++) {
+            int move = parseMove(expected[i]);
+            int actual = orderedMoves.get(i);
+            assertEquals(Move.from(move), Move.from(actual), "Move " + (i + 1) + " should be " + expected[i]);
+            assertEquals(Move.to(move), Move.to(actual), "Move " + (i + 1) + " should be " + expected[i]);
+        }
+    }
+    
+    @Then("searching to depth {int} with move ordering visits fewer nodes than without")
+    public void move_ordering_visits_fewer_nodes(int depth) {
+        long[] nodes = new long[2];
+        int[] scores = new int[2];
+        for (int i = 0; i < 2; i++) {
+            SearchEngine engine = new SearchEngine(new TranspositionTable(1));
+            engine.setMoveOrdering(i == 0);
+            SearchResult result = engine.search(chessService, SearchLimits.depth(depth));
+            nodes[i] = result.nodes();
+            scores[i] = result.score();
+        }
+        assertEquals(scores[1], scores[0], "Move ordering must not change the score");
+        assertTrue(nodes[0] < nodes[1], "Ordered " + nodes[0] + " nodes, unordered " + nodes[1]);
+    }
+    
+    @After
+    public void closeGameRegistry() {
+        if (gameRegistry != null) {
+            gameRegistry.close();
+        }
+    }
+    
+    @Given("a game registry with {int} worker threads")
+    public void a_game_registry_with_worker_threads(int threads) {
+        // 測試中以手動清掃取代背景清掃
+        gameRegistry = new GameRegistry(threads, Duration.ofHours(1));
+        registeredGames = new ArrayList<>();
+    }
+    
+    @When("{int} clients each create {int} games and submit the moves {string} to each")
+    public void clients_play_their_own_games(int clients, int gamesPerClient, String line) throws Exception {
+        String[] moves = line.trim().split(" ");
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                results.add(pool.submit(() -> {
+                    List<Long> games = new ArrayList<>();
+                    List<CompletableFuture<Boolean>> submissions = new ArrayList<>();
+                    for (int i = 0; i < gamesPerClient; i++) {
+                        long game = gameRegistry.createGame();
+                        games.add(game);
+                        // 不等待前一步完成，依提交順序由對局的 actor 執行
+                        for (String move : moves) {
+                            submissions.add(gameRegistry.submitMove(game, parseMove(move)));
+                        }
+                    }
+                    for (CompletableFuture<Boolean> submission : submissions) {
+                        assertTrue(submission.join(), "Every submitted move should be legal");
+                    }
+                    return games;
+                }));
+            }
+            for (Future<List<Long>> result : results) {
+                registeredGames.addAll(result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Then("the registry holds {int} games")
+    public void the_registry_holds_games(int games) {
+        assertEquals(games, gameRegistry.size());
+        assertEquals(games, registeredGames.size());
+    }
+    
+    @Then("every game has the FEN {string}")
+    public void every_game_has_the_fen(String fen) {
+        for (long game : registeredGames) {
+            assertEquals(fen, gameRegistry.submit(game, Fen::toFen).join());
+        }
+    }
+    
+    @Given("a registered game where {string} has been played")
+    public void a_registered_game_where_moves_have_been_played(String line) {
+        long game = gameRegistry.createGame();
+        registeredGames.add(game);
+        for (String move : line.trim().split(" ")) {
+            assertTrue(gameRegistry.submitMove(game, parseMove(move)).join());
+        }
+    }
+    
+    @Given("a registered game starting from the FEN {string}")
+    public void a_registered_game_starting_from_the_fen(String fen) {
+        registeredGames.add(gameRegistry.createGame(fen));
+    }
+    
+    @When("idle games are evicted")
+    public void idle_games_are_evicted() {
+        evictedGames = gameRegistry.evictIdle(Duration.ZERO).join();
+    }
+    
+    @Then("{int} game is evicted and {int} games are resident")
+    public void games_are_evicted_and_resident(int evicted, int resident) {
+        assertEquals(evicted, evictedGames);
+        assertEquals(resident, gameRegistry.residentGames());
+    }
+    
+    @When("the move {string} is submitted to the game")
+    public void the_move_is_submitted_to_the_game(String move) {
+        submittedMoveResult = gameRegistry.submitMove(registeredGames.get(0), parseMove(move))
+                .orTimeout(10, TimeUnit.SECONDS).join();
+    }
+    
+    @Then("the submitted move is accepted")
+    public void the_submitted_move_is_accepted() {
+        assertTrue(submittedMoveResult);
+    }
+    
+    @Then("the submitted move is rejected")
+    public void the_submitted_move_is_rejected() {
+        assertFalse(submittedMoveResult);
+    }
+    
+    @Then("{int} game is resident")
+    public void game_is_resident(int resident) {
+        assertEquals(resident, gameRegistry.residentGames());
+    }
+    
+    @Then("the game has the FEN {string}")
+    public void the_game_has_the_fen(String fen) {
+        assertEquals(fen, gameRegistry.submit(registeredGames.get(0), Fen::toFen).join());
+    }
+    
+    @Then("the game is over and won by {word}")
+    public void the_game_is_over_and_won_by(String winner) {
+        assertTrue(gameRegistry.submit(registeredGames.get(0), ChineseChessService::isGameOver).join());
+        assertEquals(winner, gameRegistry.submit(registeredGames.get(0), ChineseChessService::getWinner).join());
+    }
+    
+    @When("a task on the game throws an error")
+    public void a_task_on_the_game_throws_an_error() {
+        CompletableFuture<Object> task = gameRegistry.submit(registeredGames.get(0), position -> {
+            throw new AssertionError("Task failed");
+        }).orTimeout(10, TimeUnit.SECONDS);
+        CompletionException failure = assertThrows(CompletionException.class, task::join);
+        assertInstanceOf(AssertionError.class, failure.getCause());
+    }
+    
+    @Then("submitting a move to game {long} is rejected")
+    public void submitting_a_move_to_an_unknown_game_is_rejected(long game) {
+        assertThrows(IllegalArgumentException.class,
+                () -> gameRegistry.submitMove(game, parseMove("(1,1)-(2,1)")));
+    }
+    
+    @When("the moves {string} are validated in a batch")
+    public void the_moves_are_validated_in_a_batch(String line) {
+        int[] moves = Arrays.stream(line.trim().split(" ")).mapToInt(ChineseChessSteps::parseMove).toArray();
+        batchResult = new BitSet();
+        BatchMoveValidator.validate(chessService, moves, moves.length, batchResult);
+    }
+    
+    @Then("the batch result is {string}")
+    public void the_batch_result_is(String expected) {
+        String[] results = expected.trim().split(" ");
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(results[i].equals("legal"), batchResult.get(i), "Move " + (i + 1) + " should be " + results[i]);
+        }
+    }
+    
+    @Then("batch validation of every from-to pair agrees with single moves")
+    public void batch_validation_agrees_with_single_moves() {
+        int[] moves = new int[Square.COUNT * Square.COUNT];
+        for (int from = 0; from < Square.COUNT; from++) {
+            for (int to = 0; to < Square.COUNT; to++) {
+                moves[from * Square.COUNT + to] = Move.of(from, to);
+            }
+        }
+        BitSet result = new BitSet();
+        BatchMoveValidator.validate(chessService, moves, moves.length, result);
+        for (int i = 0; i < moves.length; i++) {
+            boolean expected = chessService.copy().move(moves[i]);
+            assertEquals(expected, result.get(i), "Move " + Move.from(moves[i]) + "-" + Move.to(moves[i]));
+        }
+    }
+    
+    @When("snapshots are taken after each of the moves {string}")
+    public void snapshots_are_taken_after_each_move(String line) {
+        snapshots = new ArrayList<>(List.of(GameState.of(chessService)));
+        fullCaptures = new ArrayList<>(snapshots);
+        for (String text : line.trim().split(" ")) {
+            int move = parseMove(text);
+            assertTrue(chessService.move(move), "Move should be legal: " + text);
+            snapshots.add(snapshots.get(snapshots.size() - 1).after(move, chessService));
+            fullCaptures.add(GameState.of(chessService));
+        }
+    }
+    
+    @Then("every snapshot equals a full capture of the board after its move")
+    public void every_snapshot_equals_a_full_capture() {
+        for (int i = 0; i < snapshots.size(); i++) {
+            GameState snapshot = snapshots.get(i);
+            GameState capture = fullCaptures.get(i);
+            assertEquals(capture, snapshot, "Snapshot " + i);
+            assertEquals(Fen.toFen(capture.toBoard()), Fen.toFen(snapshot.toBoard()), "Snapshot " + i);
+        }
+    }
+    
+    @Then("snapshot {int} restores the FEN {string}")
+    public void snapshot_restores_the_fen(int index, String fen) {
+        assertEquals(fen, Fen.toFen(snapshots.get(index).toBoard()));
+    }
+    
+    @Then("the last snapshot is won by {word}")
+    public void the_last_snapshot_is_won_by(String winner) {
+        GameState last = snapshots.get(snapshots.size() - 1);
+        assertTrue(last.isGameOver());
+        assertEquals(winner, last.getWinner());
+        assertTrue(last.toBoard().isGameOver());
+        assertFalse(snapshots.get(snapshots.size() - 2).isGameOver());
+    }
+    
+    @When("{int} games at depth {int} are played between {string} and {string} with openings {string}")
+    public void games_are_played_between(int games, int depth, String first, String second, String openings) {
+        try (Tournament tournament = new Tournament(2, SearchLimits.depth(depth), 40)) {
+            tournamentResult = tournament.play(EngineConfig.of(first), EngineConfig.of(second),
+                    List.of(openings.split(",")), games);
+        }
+    }
+    
+    @Then("each engine has {int} results and their wins and losses mirror each other")
+    public void each_engine_has_results(int games) {
+        EngineScore first = tournamentResult.first();
+        EngineScore second = tournamentResult.second();
+        assertEquals(games, first.games());
+        assertEquals(games, second.games());
+        assertEquals(first.wins(), second.losses());
+        assertEquals(first.losses(), second.wins());
+        assertEquals(first.draws(), second.draws());
+        assertTrue(first.averageNodesPerSecond() > 0);
+        assertTrue(second.averageNodesPerSecond() > 0);
+    }
+    
+    @Then("the tournament summary lists {string} and {string}")
+    public void the_tournament_summary_lists(String first, String second) {
+        String summary = tournamentResult.summary();
+        assertTrue(summary.contains(first), summary);
+        assertTrue(summary.contains(second), summary);
+    }
+    
+    @Then("a score of {int} wins, {int} draws and {int} losses is an Elo difference of {double}")
+    public void a_score_is_an_elo_difference(int wins, int draws, int losses, double elo) {
+        EngineScore score = new EngineScore("engine", wins, draws, losses, 0, 0, 0);
+        assertEquals(elo, TournamentResult.elo(score.score()), 0.1);
+    }
+    
+    @Then("a tournament with the opening {string} is rejected")
+    public void a_tournament_with_the_opening_is_rejected(String opening) {
+        try (Tournament tournament = new Tournament(1, SearchLimits.depth(1), 10)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> tournament.play(EngineConfig.of("a"), EngineConfig.of("b"), List.of(opening), 2));
+        }
+    }
+    
+    @After
+    public void quitUcciEngine() {
+        if (ucciEngine != null) {
+            ucciEngine.handle("quit");
+        }
+    }
+    
+    @Given("a UCCI engine")
+    public void a_ucci_engine() {
+        ucciOutput = new ByteArrayOutputStream();
+        ucciEngine = new UcciEngine(new PrintStream(ucciOutput, true, StandardCharsets.UTF_8));
+    }
+    
+    @When("the UCCI commands are sent:")
+    public void the_ucci_commands_are_sent(String commands) {
+        ucciRepliesSeen = ucciReplies().size();
+        // stop 等待搜尋結束；卡住時讓情境失敗而不是讓整個測試停住
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (String command : commands.lines().toList()) {
+                assertTrue(ucciEngine.handle(command), "Engine should keep running after: " + command);
+            }
+        }, ucciOutput::toString);
+    }
+    
+    @Then("the UCCI engine replies {string}")
+    public void the_ucci_engine_replies(String reply) {
+        awaitUcciReply(reply);
+    }
+    
+    @Then("the UCCI engine reports an info line at depth {int} with nps and hashfull")
+    public void the_ucci_engine_reports_an_info_line(int depth) {
+        String info = awaitUcciReply("info depth " + depth + " ");
+        assertTrue(info.matches("info depth \\d+ score -?\\d+ time \\d+ nodes \\d+ nps \\d+ hashfull \\d+ pv( \\w{4})+"),
+                info);
+    }
+    
+    @Then("the UCCI engine replies with a legal best move")
+    public void the_ucci_engine_replies_with_a_legal_best_move() {
+        String[] reply = awaitUcciReply("bestmove ").split(" ");
+        ChineseChessService position = Fen.parse(ucciEngine.fen());
+        assertTrue(position.move(Iccs.parse(reply[1])), "Best move should be legal: " + reply[1]);
+    }
+    
+    @Then("the UCCI engine has not replied {string} after {int} ms")
+    public void the_ucci_engine_has_not_replied(String reply, int millis) throws InterruptedException {
+        Thread.sleep(millis);
+        assertTrue(ucciReplies().stream().noneMatch(line -> line.startsWith(reply)), ucciOutput.toString());
+    }
+    
+    @Then("the UCCI position is {string}")
+    public void the_ucci_position_is(String fen) {
+        assertEquals(fen, ucciEngine.fen());
+    }
+    
+    /**
+     * 等待引擎在最近一次送出指令之後回覆以 prefix 開頭的一行，最多 10 秒
+     */
+    private String awaitUcciReply(String prefix) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            List<String> replies = ucciReplies();
+            for (String line : replies.subList(Math.min(ucciRepliesSeen, replies.size()), replies.size())) {
+                if (line.startsWith(prefix)) {
+                    return line;
+                }
+            }
+            LockSupport.parkNanos(10_000_000);
+        }
+        fail("No reply starting with \"" + prefix + "\" in:\n" + ucciOutput);
+        return null;
+    }
+    
+    private List<String> ucciReplies() {
+        return ucciOutput.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+    
+    @Given("a transposition table of {int} MB")
+    public void a_transposition_table_of(int sizeMb) {
+        transpositionTable = new TranspositionTable(sizeMb);
+    }
+    
+    @When("key {long} is stored with move {string}, depth {int}, score {int} and bound {word}")
+    public void key_is_stored_with(long key, String move, int depth, int score, String bound) {
+        transpositionTable.store(key, parseMove(move), depth, score, bound(bound));
+    }
+    
+    @When("key {long} is stored at depth {int}")
+    public void key_is_stored_at_depth(long key, int depth) {
+        transpositionTable.store(key, Move.NONE, depth, 0, TranspositionTable.BOUND_EXACT);
+    }
+    
+    @When("a new search starts on the transposition table")
+    public void a_new_search_starts_on_the_transposition_table() {
+        transpositionTable.newSearch();
+    }
+    
+    @Then("probing key {long} hits with move {string}, depth {int}, score {int} and bound {word}")
+    public void probing_key_hits_with(long key, String move, int depth, int score, String bound) {
+        long data = transpositionTable.probe(key);
+        assertNotEquals(TranspositionTable.MISS, data);
+        assertEquals(parseMove(move), TranspositionTable.move(data));
+        assertEquals(depth, TranspositionTable.depth(data));
+        assertEquals(score, TranspositionTable.score(data));
+        assertEquals(bound(bound), TranspositionTable.bound(data));
+    }
+    
+    @Then("probing key {long} hits at depth {int}")
+    public void probing_key_hits_at_depth(long key, int depth) {
+        long data = transpositionTable.probe(key);
+        assertNotEquals(TranspositionTable.MISS, data, "Key " + key + " should hit");
+        assertEquals(depth, TranspositionTable.depth(data));
+    }
+    
+    @Then("probing key {long} misses")
+    public void probing_key_misses(long key) {
+        assertEquals(TranspositionTable.MISS, transpositionTable.probe(key), "Key " + key + " should miss");
+    }
+    
+    @Then("the transposition table counts {long} hits, {long} misses and {long} overwrites")
+    public void the_transposition_table_counts(long hits, long misses, long overwrites) {
+        assertEquals(hits, transpositionTable.hits());
+        assertEquals(misses, transpositionTable.misses());
+        assertEquals(overwrites, transpositionTable.overwrites());
+    }
+    
+    private static int bound(String bound) {
+        return switch (bound) {
+            case "EXACT" -> TranspositionTable.BOUND_EXACT;
+            case "LOWER" -> TranspositionTable.BOUND_LOWER;
+            case "UPPER" -> TranspositionTable.BOUND_UPPER;
+            default -> throw new IllegalArgumentException("Unknown bound: " + bound);
+        };
+    }
+    
+    /**
+     * 從標準開局走完以空白分隔的 ICCS 走法後的局面雜湊
+     */
+    private long positionAfter(String line) {
+        ChineseChessService position = new ChineseChessService();
+        position.setupInitialPosition();
+        for (String token : line.trim().split(" ")) {
+            if (!token.isEmpty()) {
+                assertTrue(position.move(Iccs.parse(token)), "Move should be legal: " + token);
+            }
+        }
+        return position.positionHash();
+    }
+}
@@ -33,6 +33,12 @@ Feature: Chinese Chess (象棋) Rules
     When Red moves the General from (2, 4) to (2, 5)
     Then the move is illegal
 
+  @General
+  Scenario: Red moves a piece type that is not on the source square (Illegal)
+    Given the board is empty except for a Red General at (1, 5)
+    When Red moves the Rook from (1, 5) to (1, 4)
+    Then the move is illegal
+
   #################################################################
   # 2) GUARD (士/仕)
   #################################################################
@@ -194,3 +200,801 @@ Feature: Chinese Chess (象棋) Rules
       | Black Cannon  | (5, 8)   |
     When Red moves the Rook from (5, 5) to (5, 8)
     Then the game is not over just from that capture
+
+
+  #################################################################
+  # 9) MOVE GENERATION (走法產生)
+  #################################################################
+  @MoveGeneration
+  Scenario: Legal moves exclude moves that leave the generals facing
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 5)   |
+      | Red Rook      | (4, 1)   |
+      | Black General | (10, 4)  |
+    Then Red has 19 legal moves
+
+  @MoveGeneration
+  Scenario: Cannon moves need exactly one screen to capture
+    Given the board has:
+      | Piece         | Position |
+      | Red Cannon    | (6, 2)   |
+      | Black Soldier | (6, 5)   |
+      | Black Guard   | (6, 8)   |
+      | Red Soldier   | (8, 2)   |
+    Then Red has 13 legal moves
+
+  @MoveGeneration
+  Scenario: Generated moves agree with single-move validation in a crowded position
+    Given the board has:
+      | Piece          | Position |
+      | Red General    | (1, 5)   |
+      | Red Guard      | (1, 4)   |
+      | Red Elephant   | (1, 3)   |
+      | Red Horse      | (3, 3)   |
+      | Red Rook       | (3, 1)   |
+      | Red Cannon     | (3, 8)   |
+      | Red Soldier    | (4, 5)   |
+      | Red Soldier    | (7, 7)   |
+      | Black General  | (10, 4)  |
+      | Black Guard    | (9, 5)   |
+      | Black Elephant | (10, 7)  |
+      | Black Horse    | (8, 3)   |
+      | Black Rook     | (7, 1)   |
+      | Black Cannon   | (8, 8)   |
+      | Black Soldier  | (5, 5)   |
+      | Black Soldier  | (4, 9)   |
+    Then every generated move for Red is accepted by the move validator and nothing else is
+    And every generated move for Black is accepted by the move validator and nothing else is
+    And making and unmaking every legal move for Red restores the board
+    And making and unmaking every legal move for Black restores the board
+
+  @MoveGeneration @Perft
+  Scenario Outline: Perft from the initial position counts <nodes> leaf nodes at depth <depth>
+    Given the initial position
+    Then perft to depth <depth> counts <nodes> leaf nodes
+
+    # 公認的標準開局 perft 數值；只列已驗證的數值，走法產生不符時即失敗
+    Examples:
+      | depth | nodes   |
+      | 1     | 44      |
+      | 2     | 1920    |
+      | 3     | 79666   |
+      | 4     | 3290240 |
+
+  @MoveGeneration @Perft
+  Scenario: Perft agrees with brute-force move validation in a crowded position
+    Given the board has:
+      | Piece          | Position |
+      | Red General    | (1, 5)   |
+      | Red Guard      | (1, 4)   |
+      | Red Horse      | (3, 3)   |
+      | Red Rook       | (3, 1)   |
+      | Red Cannon     | (3, 8)   |
+      | Red Soldier    | (6, 5)   |
+      | Black General  | (10, 4)  |
+      | Black Guard    | (9, 5)   |
+      | Black Elephant | (10, 7)  |
+      | Black Horse    | (8, 3)   |
+      | Black Cannon   | (8, 8)   |
+      | Black Soldier  | (4, 9)   |
+    Then perft to depth 2 matches brute-force move validation
+
+  @MoveGeneration
+  Scenario: Positions with more pieces than a side starts with are rejected
+    # 超出數量的棋子可產生多於 MAX_MOVES 的走法（此局面紅方有 131 步）
+    Then the FEN "3k5/R8/1R7/2R6/4R4/6R2/7R1/8R/NN1N1N1NN/5K3 w - - 0 1" is rejected
+
+  #################################################################
+  # 10) POSITION HASHING (局面雜湊)
+  #################################################################
+  @Hashing
+  Scenario: Transposed move orders reach the same position hash
+    Given the board has:
+      | Piece         | Position |
+      | Red Rook      | (1, 1)   |
+      | Red Horse     | (1, 2)   |
+      | Black Rook    | (10, 9)  |
+    Then the moves "(1,1)-(2,1) (10,9)-(9,9) (1,2)-(3,3)" and "(1,2)-(3,3) (10,9)-(9,9) (1,1)-(2,1)" reach the same position hash
+
+  #################################################################
+  # 11) TRANSPOSITION TABLE (置換表)
+  # 1 MB 的置換表有 32768 個 bucket，鍵值相差 32768 的倍數時落在同一個 bucket
+  #################################################################
+  @TranspositionTable
+  Scenario: A stored position is found again with its move, depth, score and bound
+    Given a transposition table of 1 MB
+    When key 1 is stored with move "(3,2)-(3,5)", depth 4, score -25 and bound LOWER
+    Then probing key 1 hits with move "(3,2)-(3,5)", depth 4, score -25 and bound LOWER
+    And the transposition table counts 1 hits, 0 misses and 0 overwrites
+
+  @TranspositionTable
+  Scenario: A different key in the same bucket is a miss
+    Given a transposition table of 1 MB
+    When key 1 is stored at depth 4
+    Then probing key 32769 misses
+    And probing key 2 misses
+    And the transposition table counts 0 hits, 2 misses and 0 overwrites
+
+  @TranspositionTable
+  Scenario: The deeper result keeps its slot and shallower results take the always-replace slot
+    Given a transposition table of 1 MB
+    When key 1 is stored at depth 6
+    And key 32769 is stored at depth 3
+    Then probing key 1 hits at depth 6
+    And probing key 32769 hits at depth 3
+    When key 65537 is stored at depth 2
+    Then probing key 1 hits at depth 6
+    And probing key 32769 misses
+    And probing key 65537 hits at depth 2
+    When key 98305 is stored at depth 8
+    Then probing key 1 misses
+    And probing key 98305 hits at depth 8
+    And the transposition table counts 5 hits, 2 misses and 2 overwrites
+
+  @TranspositionTable
+  Scenario: Results from an older search can be replaced by shallower ones
+    Given a transposition table of 1 MB
+    When key 1 is stored at depth 6
+    And a new search starts on the transposition table
+    And key 32769 is stored at depth 1
+    Then probing key 32769 hits at depth 1
+    And probing key 1 misses
+
+  @TranspositionTable
+  Scenario Outline: Scores outside 16 bits are clamped instead of wrapping
+    Given a transposition table of 1 MB
+    When key 7 is stored with move "(1,1)-(2,1)", depth 1, score <score> and bound EXACT
+    Then probing key 7 hits with move "(1,1)-(2,1)", depth 1, score <stored> and bound EXACT
+
+    Examples:
+      | score  | stored |
+      | 30000  | 30000  |
+      | 40000  | 32767  |
+      | -40000 | -32767 |
+
+  #################################################################
+  # 12) SEARCH (搜尋)
+  #################################################################
+  @Search
+  Scenario: The engine captures an exposed General
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Rook      | (5, 5)   |
+      | Black General | (10, 5)  |
+    When Red searches to depth 3
+    Then the best move is from (5, 5) to (10, 5)
+    And the search reports a winning mate score
+
+  @Search
+  Scenario: The engine prefers a free Rook over a defended Horse
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Rook      | (3, 1)   |
+      | Black General | (10, 6)  |
+      | Black Rook    | (3, 9)   |
+      | Black Horse   | (8, 1)   |
+      | Black Rook    | (10, 1)  |
+    When Red searches to depth 3
+    Then the best move is from (3, 1) to (3, 9)
+
+  @Search
+  Scenario: Parallel search agrees with the single-threaded search
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Rook      | (3, 1)   |
+      | Black General | (10, 6)  |
+      | Black Rook    | (3, 9)   |
+      | Black Horse   | (8, 1)   |
+      | Black Rook    | (10, 1)  |
+    When Red searches to depth 4 with 3 threads
+    Then the best move is from (3, 1) to (3, 9)
+
+
+  #################################################################
+  # 13) CHECK, CHECKMATE AND STALEMATE (將軍、將死與困斃)
+  #################################################################
+  @Check
+  Scenario: A Horse gives check unless its leg is blocked
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Horse     | (8, 4)   |
+      | Black General | (10, 5)  |
+    Then Black is in check
+    And Red is not in check
+
+  @Check
+  Scenario: A Horse with a blocked leg does not give check
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Horse     | (8, 4)   |
+      | Black Guard   | (9, 4)   |
+      | Black General | (10, 5)  |
+    Then Black is not in check
+
+  @Check
+  Scenario: A Cannon gives check over exactly one screen
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Cannon    | (5, 5)   |
+      | Red Soldier   | (7, 5)   |
+      | Black General | (10, 5)  |
+    Then Black is in check
+
+  @Check
+  Scenario: Red cannot move a pinned Rook and expose the General (Illegal)
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 5)   |
+      | Red Rook      | (3, 5)   |
+      | Black Rook    | (8, 5)   |
+      | Black General | (10, 4)  |
+    When Red moves the Rook from (3, 5) to (3, 1)
+    Then the move is illegal
+
+  @Check
+  Scenario: Red cannot ignore a check (Illegal)
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 5)   |
+      | Red Rook      | (3, 1)   |
+      | Black Horse   | (3, 4)   |
+      | Black General | (10, 4)  |
+    When Red moves the Rook from (3, 1) to (4, 1)
+    Then the move is illegal
+
+  @Check
+  Scenario: Red checkmates with two Rooks and wins
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Rook      | (9, 1)   |
+      | Red Rook      | (8, 9)   |
+      | Black General | (10, 5)  |
+    When Red moves the Rook from (8, 9) to (10, 9)
+    Then the move is legal
+    And Black is checkmated
+    And Red wins immediately
+
+  @Check
+  Scenario: Leaving the opponent without a legal move also wins
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 6)   |
+      | Red Rook      | (9, 1)   |
+      | Red Rook      | (5, 1)   |
+      | Black General | (10, 5)  |
+    When Red moves the Rook from (5, 1) to (5, 4)
+    Then the move is legal
+    And Black is not in check
+    And Black is stalemated
+    And Red wins immediately
+
+
+  #################################################################
+  # 14) REPETITION (重複局面)
+  #################################################################
+  @Repetition
+  Scenario: Repeating quiet moves three times is a draw
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Horse     | (3, 3)   |
+      | Black General | (10, 6)  |
+      | Black Horse   | (8, 7)   |
+    When the moves "(3,3)-(5,4) (8,7)-(6,8) (5,4)-(3,3) (6,8)-(8,7)" are played
+    Then the game is not over
+    When the moves "(3,3)-(5,4) (8,7)-(6,8) (5,4)-(3,3) (6,8)-(8,7)" are played
+    Then the game is drawn by repetition
+
+  @Repetition
+  Scenario: The side giving perpetual check loses
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 6)   |
+      | Red Rook      | (8, 4)   |
+      | Black General | (10, 5)  |
+    When the moves "(8,4)-(8,5) (10,5)-(10,4) (8,5)-(8,4) (10,4)-(10,5)" are played
+    And the moves "(8,4)-(8,5) (10,5)-(10,4) (8,5)-(8,4) (10,4)-(10,5)" are played
+    Then Black wins because Red made a perpetual check
+
+  @Repetition
+  Scenario: The side chasing an unprotected piece forever loses
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 4)   |
+      | Red Rook      | (5, 3)   |
+      | Black General | (10, 5)  |
+      | Black Horse   | (8, 2)   |
+    When the moves "(5,3)-(5,2) (8,2)-(6,3) (5,2)-(5,3) (6,3)-(8,2)" are played
+    And the moves "(5,3)-(5,2) (8,2)-(6,3) (5,2)-(5,3) (6,3)-(8,2)" are played
+    Then Black wins because Red made a perpetual chase
+
+
+  #################################################################
+  # 15) FEN AND BINARY ENCODING (局面記錄)
+  #################################################################
+  @Fen
+  Scenario: The initial position is written as standard FEN
+    Given the initial position
+    Then the FEN is "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w - - 0 1"
+
+  @Fen
+  Scenario: Loading the standard FEN gives the initial position
+    Given the position "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w - - 0 1"
+    Then the position is the initial position
+    And perft to depth 2 counts 1920 leaf nodes
+
+  @Fen
+  Scenario: FEN keeps the side to move and accepts alternative piece letters
+    Given the position "3k5/4a4/4b4/9/2h6/9/4P4/9/4C4/4K4 b"
+    Then the FEN is "3k5/4a4/4b4/9/2n6/9/4P4/9/4C4/4K4 b - - 0 1"
+    And Black has 16 legal moves
+
+  @Fen
+  Scenario Outline: Malformed FEN is rejected (<problem>)
+    Then the FEN "<fen>" is rejected
+
+    Examples:
+      | problem             | fen                                                              |
+      | missing rank        | rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/RNBAKABNR w      |
+      | rank too long       | rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNRR w   |
+      | unknown piece       | rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKXBNR w    |
+      | invalid side        | rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR x    |
+
+  @Fen
+  Scenario: The binary encoding is 46 bytes and round-trips a position
+    Given the initial position
+    When the moves "(3,2)-(3,5) (10,2)-(8,3)" are played
+    Then the position encodes to 46 bytes and decodes to the same position
+
+
+  #################################################################
+  # 16) GAME RECORD REPLAY (棋譜重播)
+  #################################################################
+  @Replay
+  Scenario Outline: ICCS coordinates map files a-i and ranks 0-9 onto the board
+    Then the ICCS move "<iccs>" goes from (<fromRow>, <fromCol>) to (<toRow>, <toCol>)
+
+    Examples:
+      | iccs | fromRow | fromCol | toRow | toCol |
+      | h2e2 | 3       | 8       | 3     | 5     |
+      | h9g7 | 10      | 8       | 8     | 7     |
+      | a0a1 | 1       | 1       | 2     | 1     |
+
+  @Replay
+  Scenario Outline: Replaying an archive reports the first illegal ply of each game (<threads> threads)
+    Given the game archive:
+      """
+      h2e2 h9g7 h0g2 i9h9
+      h2e2 h7e7 e2e8 a9a8
+      b2e2 h9g7 e2e6 a9a8
+
+      h2e2 h2e2
+      h9g7
+      """
+    When the archive is replayed with <threads> threads in segments of <segment> bytes
+    Then 5 games with 11 legal moves are replayed
+    And the first illegal plies are:
+      | Line | Ply | Move |
+      | 2    | 3   | e2e8 |
+      | 5    | 2   | h2e2 |
+      | 6    | 1   | h9g7 |
+
+    Examples:
+      | threads | segment  |
+      | 1       | 67108864 |
+      | 3       | 16       |
+
+
+  #################################################################
+  # 17) OPENING BOOK (開局庫)
+  #################################################################
+  @OpeningBook
+  Scenario: The opening book merges repeated moves into weights
+    Given the game archive:
+      """
+      h2e2 h9g7 h0g2 i9h9
+      h2e2 h7e7 h0g2
+      h2e2 h9g7 b0c2
+      b2e2 h9g7 h0g2
+      """
+    When an opening book of up to 2 plies is built from the archive
+    Then the opening book has 5 entries
+    And the opening book lists after "":
+      | Move | Weight |
+      | h2e2 | 3      |
+      | b2e2 | 1      |
+    And the opening book lists after "h2e2":
+      | Move | Weight |
+      | h9g7 | 2      |
+      | h7e7 | 1      |
+    And the opening book lists after "h2e2 h9g7":
+      | Move | Weight |
+    And 4 threads probing the opening book after "" all choose "h2e2"
+
+
+  #################################################################
+  # 18) ENDGAME TABLEBASES (殘局庫)
+  #################################################################
+  @Tablebase
+  Scenario: Generating a tablebase also generates the tables reached by captures
+    Given tablebases for "KRk" are generated with 2 threads
+    Then the tablebases hold 2 tables
+
+  @Tablebase
+  Scenario Outline: Tablebase results are seen from the side to move (<case>)
+    Given tablebases for "<material>" are generated with 2 threads
+    And the position "<fen>"
+    Then the tablebase scores the position as <result>
+
+    Examples:
+      | case                   | material | fen                                  | result            |
+      | mate in one            | KRk      | 3k5/9/9/9/9/R8/9/9/9/4K4 w           | a win in 1 plies  |
+      | already mated          | KRk      | 3k5/9/9/9/9/3R5/9/9/9/4K4 b          | a loss in 0 plies |
+      | mate after a reply     | KRk      | 9/4k4/9/9/1R7/9/9/9/5K3/9 w          | a win in 3 plies  |
+      | Rook can be captured   | KRk      | 3k5/3R5/9/9/9/9/9/9/9/4K4 b          | a draw            |
+      | lone Cannon cannot win | KCk      | 3k5/9/9/9/9/C8/9/9/9/4K4 w           | a draw            |
+
+  @Tablebase
+  Scenario: Tablebases saved to disk load back unchanged
+    Given tablebases for "KHk" are generated with 2 threads
+    Then the tablebases saved to disk and loaded again agree on every position
+
+  @Tablebase
+  Scenario: The search scores tablebase positions as exact mates
+    Given tablebases for "KRk" are generated with 2 threads
+    And the position "9/4k4/9/9/1R7/9/9/9/5K3/9 w"
+    When Red searches to depth 1 with the tablebases
+    Then the search reports a winning mate score
+
+
+  #################################################################
+  # 19) EVALUATION (局面評估)
+  #################################################################
+  @Evaluation
+  Scenario: The symmetric initial position evaluates to zero and is restored after unmaking moves
+    Given the initial position
+    Then the evaluation is 0
+    When the moves "(3,2)-(3,5) (10,2)-(8,3) (1,2)-(3,3) (7,3)-(6,3)" are played
+    Then the incremental evaluation matches the position rebuilt from its FEN
+    When every move is taken back
+    Then the evaluation is 0
+
+  @Evaluation
+  Scenario: Evaluation weights are loaded from a file
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 5)   |
+      | Red Rook      | (5, 1)   |
+      | Black General | (10, 4)  |
+    When evaluation weights are loaded from:
+      """
+      # only material and Rook mobility
+      material ROOK 500
+      mobility ROOK 1
+      """
+    Then the evaluation is 517
+    And the incremental evaluation matches the position rebuilt from its FEN
+
+  @Evaluation
+  Scenario: A piece-square table with a short row is rejected
+    Then evaluation weights are rejected:
+      """
+      pst ROOK
+      1 2 3
+      """
+
+
+  #################################################################
+  # 20) MOVE ORDERING (走法排序)
+  #################################################################
+  @MoveOrdering
+  Scenario: The hash move comes first, then captures by MVV-LVA, then killers
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 5)   |
+      | Red Rook      | (5, 1)   |
+      | Red Soldier   | (6, 5)   |
+      | Black General | (10, 4)  |
+      | Black Horse   | (5, 5)   |
+      | Black Cannon  | (9, 1)   |
+      | Black Cannon  | (6, 4)   |
+    When Red's moves are ordered with hash move "(1,5)-(2,5)" and killer "(5,1)-(4,1)"
+    Then the first moves are "(1,5)-(2,5) (6,5)-(6,4) (5,1)-(9,1) (5,1)-(5,5) (5,1)-(4,1)"
+
+  @MoveOrdering
+  Scenario: Move ordering reaches the same score with fewer nodes
+    Given the initial position
+    When the moves "(3,2)-(3,5) (10,2)-(8,3)" are played
+    Then searching to depth 3 with move ordering visits fewer nodes than without
+
+
+  #################################################################
+  # 21) GAME REGISTRY (多對局伺服)
+  #################################################################
+  @GameRegistry
+  Scenario: Concurrent clients each play their own games without interfering
+    Given a game registry with 4 worker threads
+    When 8 clients each create 50 games and submit the moves "(3,2)-(3,5) (10,2)-(8,3) (1,2)-(3,3)" to each
+    Then the registry holds 400 games
+    And every game has the FEN "r1bakabnr/9/1cn4c1/p1p1p1p1p/9/9/P1P1P1P1P/2N1C2C1/9/R1BAKABNR b - - 0 1"
+
+  @GameRegistry
+  Scenario: Idle games are evicted to their compact form and restored on the next move
+    Given a game registry with 2 worker threads
+    And a registered game where "(3,2)-(3,5) (10,2)-(8,3)" has been played
+    When idle games are evicted
+    Then 1 game is evicted and 0 games are resident
+    When the move "(1,2)-(3,3)" is submitted to the game
+    Then the submitted move is accepted
+    And 1 game is resident
+    And the game has the FEN "r1bakabnr/9/1cn4c1/p1p1p1p1p/9/9/P1P1P1P1P/2N1C2C1/9/R1BAKABNR b - - 0 1"
+    When the move "(1,2)-(3,3)" is submitted to the game
+    Then the submitted move is rejected
+
+  @GameRegistry
+  Scenario: Moves after the game is over are rejected
+    # 吃掉將之後輪到黑方，黑車的走法本身合乎規則，只因對局已結束而被拒絕
+    Given a game registry with 1 worker threads
+    And a registered game starting from the FEN "r3k4/9/9/9/9/9/9/9/4R4/3K5 w - - 0 1"
+    When the move "(2,5)-(10,5)" is submitted to the game
+    Then the submitted move is accepted
+    And the game is over and won by Red
+    When the move "(10,1)-(9,1)" is submitted to the game
+    Then the submitted move is rejected
+    And the game has the FEN "r3R4/9/9/9/9/9/9/9/9/3K5 b - - 0 1"
+
+  @GameRegistry
+  Scenario: A side cannot move twice in a row
+    Given a game registry with 1 worker threads
+    And a registered game where "(3,2)-(3,5)" has been played
+    When the move "(1,2)-(3,3)" is submitted to the game
+    Then the submitted move is rejected
+    And the game has the FEN "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/4C2C1/9/RNBAKABNR b - - 0 1"
+
+  @GameRegistry
+  Scenario: An evicted game keeps its repetition history
+    Given a game registry with 1 worker threads
+    And a registered game starting from the FEN "4k4/9/3R5/9/9/9/9/9/9/5K3 w - - 0 1"
+    When the move "(8,4)-(8,5)" is submitted to the game
+    And the move "(10,5)-(10,4)" is submitted to the game
+    And the move "(8,5)-(8,4)" is submitted to the game
+    And the move "(10,4)-(10,5)" is submitted to the game
+    And the move "(8,4)-(8,5)" is submitted to the game
+    And idle games are evicted
+    Then 1 game is evicted and 0 games are resident
+    When the move "(10,5)-(10,4)" is submitted to the game
+    And the move "(8,5)-(8,4)" is submitted to the game
+    And the move "(10,4)-(10,5)" is submitted to the game
+    Then the submitted move is accepted
+    And the game is over and won by Black
+
+  @GameRegistry
+  Scenario: A task that throws an error does not stall the game
+    Given a game registry with 1 worker threads
+    And a registered game where "(3,2)-(3,5)" has been played
+    When a task on the game throws an error
+    And the move "(10,2)-(8,3)" is submitted to the game
+    Then the submitted move is accepted
+
+  @GameRegistry
+  Scenario: Moves for an unknown game are rejected
+    Given a game registry with 1 worker threads
+    Then submitting a move to game 42 is rejected
+
+
+  #################################################################
+  # 22) BATCH MOVE VALIDATION (批次走法驗證)
+  #################################################################
+  @BatchValidation
+  Scenario: A batch of moves is validated without changing the board
+    Given the initial position
+    When the moves "(3,2)-(3,5) (1,2)-(3,3) (1,2)-(2,2) (4,1)-(6,1) (10,2)-(8,3) (5,5)-(6,5)" are validated in a batch
+    Then the batch result is "legal legal illegal illegal legal illegal"
+    And the FEN is "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w - - 0 1"
+
+  @BatchValidation
+  Scenario: A move that exposes the general is rejected in a batch
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 5)   |
+      | Red Rook      | (2, 5)   |
+      | Black General | (10, 4)  |
+      | Black Rook    | (8, 5)   |
+    When the moves "(2,5)-(2,1) (2,5)-(8,5) (1,5)-(1,4) (1,5)-(1,6)" are validated in a batch
+    Then the batch result is "illegal legal illegal legal"
+
+  @BatchValidation
+  Scenario: Batch validation agrees with single-move validation
+    Given the initial position
+    When the moves "(3,2)-(3,5) (10,2)-(8,3) (1,2)-(3,3) (7,3)-(6,3) (3,8)-(7,8)" are played
+    Then batch validation of every from-to pair agrees with single moves
+
+
+  #################################################################
+  # 23) IMMUTABLE GAME STATE (不可變的對局快照)
+  #################################################################
+  @GameState
+  Scenario: Snapshots after each move match the board and earlier snapshots never change
+    Given the initial position
+    When snapshots are taken after each of the moves "(3,2)-(3,5) (10,2)-(8,3) (1,2)-(3,3) (8,8)-(1,8) (3,5)-(7,5)"
+    Then every snapshot equals a full capture of the board after its move
+    And snapshot 0 restores the FEN "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w - - 0 1"
+    And snapshot 3 restores the FEN "r1bakabnr/9/1cn4c1/p1p1p1p1p/9/9/P1P1P1P1P/2N1C2C1/9/R1BAKABNR b - - 0 1"
+
+  @GameState
+  Scenario: A snapshot records the end of the game
+    Given the board has:
+      | Piece         | Position |
+      | Red General   | (1, 6)   |
+      | Red Rook      | (9, 1)   |
+      | Red Rook      | (8, 2)   |
+      | Black General | (10, 4)  |
+    When snapshots are taken after each of the moves "(9,1)-(9,3) (10,4)-(10,5) (8,2)-(10,2)"
+    Then every snapshot equals a full capture of the board after its move
+    And the last snapshot is won by Red
+
+
+  #################################################################
+  # 24) SELF-PLAY TOURNAMENT (引擎對戰)
+  #################################################################
+  @Tournament
+  Scenario: Engines play games in parallel from a list of openings
+    When 8 games at depth 2 are played between "baseline" and "candidate" with openings "h2e2 h9g7,b2e2,h0g2 h7e7"
+    Then each engine has 8 results and their wins and losses mirror each other
+    And the tournament summary lists "baseline" and "candidate"
+
+  @Tournament
+  Scenario Outline: Scores convert to an Elo difference
+    Then a score of <wins> wins, <draws> draws and <losses> losses is an Elo difference of <elo>
+
+    Examples:
+      | wins | draws | losses | elo    |
+      | 5    | 0     | 5      | 0.0    |
+      | 3    | 2     | 1      | 120.4  |
+      | 1    | 2     | 3      | -120.4 |
+
+  @Tournament
+  Scenario: An illegal opening is rejected before any game starts
+    Then a tournament with the opening "h2e2 h2e3" is rejected
+
+  @Tournament
+  Scenario: An opening where one side moves twice is rejected
+    Then a tournament with the opening "h2e2 b2c2" is rejected
+
+
+  #################################################################
+  # 25) UCCI PROTOCOL (UCCI 協定)
+  #################################################################
+  @Ucci
+  Scenario: The engine answers the UCCI handshake
+    Given a UCCI engine
+    When the UCCI commands are sent:
+      """
+      ucci
+      isready
+      """
+    Then the UCCI engine replies "id name "
+    And the UCCI engine replies "ucciok"
+    And the UCCI engine replies "readyok"
+
+  @Ucci
+  Scenario: Searching to a fixed depth reports info lines and a best move
+    Given a UCCI engine
+    When the UCCI commands are sent:
+      """
+      setoption hashsize 4
+      position startpos moves h2e2 h9g7
+      go depth 3
+      """
+    Then the UCCI engine reports an info line at depth 3 with nps and hashfull
+    And the UCCI engine replies with a legal best move
+
+  @Ucci
+  Scenario: Position commands extend, retract and replace the previous move list
+    Given a UCCI engine
+    When the UCCI commands are sent:
+      """
+      position startpos moves h2e2
+      position startpos moves h2e2 h9g7 h0g2
+      position startpos moves h2e2 h9g7
+      """
+    Then the UCCI position is "rnbakab1r/9/1c4nc1/p1p1p1p1p/9/9/P1P1P1P1P/1C2C4/9/RNBAKABNR w - - 0 1"
+    When the UCCI commands are sent:
+      """
+      position startpos moves b2e2 h9g7
+      """
+    Then the UCCI position is "rnbakab1r/9/1c4nc1/p1p1p1p1p/9/9/P1P1P1P1P/4C2C1/9/RNBAKABNR w - - 0 1"
+    When the UCCI commands are sent:
+      """
+      position fen 4k4/9/9/9/9/9/9/9/4R4/3K5 w - - 0 1 moves e1e8
+      """
+    Then the UCCI position is "4k4/4R4/9/9/9/9/9/9/9/3K5 b - - 0 1"
+
+  @Ucci
+  Scenario: A trailing moves keyword without moves is an empty move list
+    Given a UCCI engine
+    When the UCCI commands are sent:
+      """
+      position startpos moves h2e2
+      position startpos moves
+      """
+    Then the UCCI position is "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w - - 0 1"
+    When the UCCI commands are sent:
+      """
+      position fen 4k4/9/9/9/9/9/9/9/4R4/3K5 w - - 0 1 moves e1e8
+      position fen 4k4/9/9/9/9/9/9/9/4R4/3K5 w - - 0 1 moves
+      """
+    Then the UCCI position is "4k4/9/9/9/9/9/9/9/4R4/3K5 w - - 0 1"
+
+  @Ucci
+  Scenario: A position command stops at the first rejected move and reports it
+    Given a UCCI engine
+    When the UCCI commands are sent:
+      """
+      position startpos moves h2e2 b2c2 h9g7
+      """
+    Then the UCCI engine replies "info string Illegal move: b2c2"
+    And the UCCI position is "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C2C4/9/RNBAKABNR b - - 0 1"
+    When the UCCI commands are sent:
+      """
+      position fen 4k4/R8/1R7/9/9/9/9/9/9/3K5 w - - 0 1 moves b7b9 e9e8
+      """
+    Then the UCCI engine replies "info string Illegal move: e9e8"
+    And the UCCI position is "1R2k4/R8/9/9/9/9/9/9/9/3K5 b - - 0 1"
+
+  @Ucci
+  Scenario: Searches limited by nodes or time finish on their own
+    Given a UCCI engine
+    When the UCCI commands are sent:
+      """
+      position startpos
+      go nodes 5000
+      """
+    Then the UCCI engine replies with a legal best move
+    When the UCCI commands are sent:
+      """
+      position startpos moves h2e2
+      go time 600 increment 0
+      """
+    Then the UCCI engine replies "bestmove"
+
+  @Ucci
+  Scenario: An infinite search only reports its best move after stop
+    Given a UCCI engine
+    When the UCCI commands are sent:
+      """
+      position startpos
+      go infinite
+      """
+    Then the UCCI engine has not replied "bestmove" after 300 ms
+    When the UCCI commands are sent:
+      """
+      stop
+      """
+    Then the UCCI engine replies with a legal best move
+
+  @Ucci
+  Scenario: A stop sent right after go still gets a best move
+    Given a UCCI engine
+    When the UCCI commands are sent:
+      """
+      position startpos
+      go infinite
+      stop
+      """
+    Then the UCCI engine replies with a legal best move
+    When the UCCI commands are sent:
+      """
+      position startpos moves h2e2
+      go depth 30
+      stop
+      """
+    Then the UCCI engine replies with a legal best move